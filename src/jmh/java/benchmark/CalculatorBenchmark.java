@@ -0,0 +1,152 @@
+package benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import model.CalculateResponse;
+import model.FuelCosts;
+import model.GasPriceQuote;
+import model.MaintenanceCosts;
+import model.MaintenanceSchedule;
+import model.Region;
+import model.TotalCostOfOwnership;
+import model.VehicleRequest;
+import service.api.CityMpgService;
+import service.api.GasPriceService;
+import service.impl.CostPerMileCalculator;
+import service.impl.MaintenanceScheduleParser;
+import service.impl.RegionResolver;
+import service.impl.VehicleCatalog;
+import service.impl.VehicleCostResultCache;
+
+/**
+ * Per-request CPU and allocation cost of the calculation path with the upstream
+ * services stubbed out, so only our own code is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalculatorBenchmark {
+
+    private CostPerMileCalculator _calculator;
+    private VehicleRequest _guestRequest;
+    private VehicleRequest _manualRequest;
+    private FuelCosts _fuelCosts;
+    private TotalCostOfOwnership _ownership;
+    private double[] _projectionMiles;
+    private double[] _projectionCosts;
+
+    // First, last and unknown codes: Region.fromCode scans the enum in declaration order
+    private final String _firstRegion = Region.values()[0].getDuoAreaCode();
+    private final String _lastRegion = Region.values()[Region.values().length - 1].getDuoAreaCode();
+    private final String _unknownRegion = "ZZZ";
+
+    @Setup
+    public void setUp() {
+        _calculator = new CostPerMileCalculator(new StubMpgService(), new StubGasPriceService(),
+            null, new VehicleCostResultCache(null, 100), new RegionResolver(), MaintenanceSchedule.of(new MaintenanceCosts()),
+            new StaticListableBeanFactory().getBeanProvider(VehicleCatalog.class), Runnable::run, Duration.ofSeconds(5),
+            new SimpleMeterRegistry());
+        _guestRequest = new VehicleRequest("Toyota", "Camry", "2018", "LE", "SCA", "EPMR", null, null, null);
+        _manualRequest = new VehicleRequest(null, null, null, null, null, null, null, 28.0, 4.65);
+        _fuelCosts = new FuelCosts(4.65);
+        _ownership = new TotalCostOfOwnership(4.65 / 28.0,
+            MaintenanceScheduleParser.parse(new MaintenanceCosts(), "Tires:800:50000,Brakes:300:40000,Air filter:40:15000"));
+        _projectionMiles = TotalCostOfOwnership.mileages(150_000, 1_000);
+        _projectionCosts = new double[_projectionMiles.length];
+    }
+
+    @Benchmark
+    public CalculateResponse calculateCostPerMile_guest() {
+        return _calculator.calculateCostPerMileAsync(_guestRequest, null).join();
+    }
+
+    @Benchmark
+    public CalculateResponse calculateCostPerMile_manual() {
+        return _calculator.calculateCostPerMileAsync(_manualRequest, null).join();
+    }
+
+    @Benchmark
+    public double fuelCosts_costPerMile() {
+        return _fuelCosts.costPerMile(28.0);
+    }
+
+    // 1,000-point curve into a reused array; gc.alloc.rate.norm should be ~0
+    @Benchmark
+    public double[] totalCostOfOwnership_project() {
+        _ownership.project(_projectionMiles, _projectionCosts);
+        return _projectionCosts;
+    }
+
+    @Benchmark
+    public Region regionFromCode_first() {
+        return Region.fromCode(_firstRegion);
+    }
+
+    @Benchmark
+    public Region regionFromCode_last() {
+        return Region.fromCode(_lastRegion);
+    }
+
+    @Benchmark
+    public Region regionFromCode_unknown() {
+        return Region.fromCode(_unknownRegion);
+    }
+
+    private static final class StubGasPriceService implements GasPriceService {
+        private final CompletableFuture<Double> _price = CompletableFuture.completedFuture(4.65);
+        private final CompletableFuture<GasPriceQuote> _quote = CompletableFuture.completedFuture(new GasPriceQuote(4.65, null));
+
+        @Override
+        public double getPrice(String region, String fuelType) {
+            return 4.65;
+        }
+
+        @Override
+        public CompletableFuture<GasPriceQuote> getQuoteAsync(String region, String fuelType) {
+            return _quote;
+        }
+
+        @Override
+        public CompletableFuture<Double> getPriceAsync(String region, String fuelType) {
+            return _price;
+        }
+    }
+
+    private static final class StubMpgService implements CityMpgService {
+        private final CompletableFuture<Double> _mpg = CompletableFuture.completedFuture(28.0);
+
+        @Override
+        public double getMpg(String make, String model, String year) {
+            return 28.0;
+        }
+
+        @Override
+        public double getMpg(String make, String model, String year, String submodel) {
+            return 28.0;
+        }
+
+        @Override
+        public CompletableFuture<Double> getMpgAsync(String make, String model, String year, String submodel) {
+            return _mpg;
+        }
+    }
+}
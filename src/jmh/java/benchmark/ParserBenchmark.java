@@ -0,0 +1,70 @@
+package benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.GasPriceQuote;
+import service.impl.CarApiResponseParser;
+import service.impl.EiaResponseParser;
+
+/**
+ * Parsing cost of recorded EIA and carapi responses (src/test/resources/fixtures),
+ * i.e. the work GetAverageGasPrice and GetCityMPG do per upstream response.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    private byte[] _eiaWeekly;
+    private byte[] _carApiMileages;
+
+    @Setup
+    public void setUp() {
+        _eiaWeekly = fixture("eia-weekly-sca-epmr.json");
+        _carApiMileages = fixture("carapi-mileages-2018-toyota-camry.json");
+    }
+
+    @Benchmark
+    public GasPriceQuote eia_parseLatest() throws IOException {
+        return EiaResponseParser.parseLatest(new ByteArrayInputStream(_eiaWeekly));
+    }
+
+    @Benchmark
+    public double carApi_parseMpg_submodel() throws IOException {
+        return CarApiResponseParser.parseMpg(new ByteArrayInputStream(_carApiMileages), "Hybrid LE");
+    }
+
+    @Benchmark
+    public double carApi_parseMpg_first() throws IOException {
+        return CarApiResponseParser.parseMpg(new ByteArrayInputStream(_carApiMileages), null);
+    }
+
+    private static byte[] fixture(String name) {
+        try (InputStream in = ParserBenchmark.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing fixture " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
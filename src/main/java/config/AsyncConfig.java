@@ -0,0 +1,31 @@
+package config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AsyncConfig {
+    /**
+     * Pool for blocking work (JDBC) inside async pipelines, so it never runs on the
+     * HttpClient or common fork-join threads. Bounded platform threads by default;
+     * one virtual thread per task when spring.threads.virtual.enabled is set.
+     */
+    @Bean(name = "blockingExecutor", destroyMethod = "shutdown")
+    public ExecutorService blockingExecutor(@Value("${async.blocking.threads:32}") int threads,
+                                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("blocking-io-", 1).factory());
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "blocking-io-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
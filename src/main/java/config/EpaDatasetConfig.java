@@ -0,0 +1,46 @@
+package config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import service.impl.EpaFuelEconomyIndex;
+import service.impl.VehicleCatalog;
+
+/**
+ * Loads the EPA fueleconomy.gov bulk CSV once at startup when epa.dataset.path is set,
+ * along with the vehicle catalog built from it.
+ * mpg.source=epa answers MPG from this dataset, so it fails startup without a path.
+ */
+@Configuration
+public class EpaDatasetConfig {
+    private static final Logger log = LoggerFactory.getLogger(EpaDatasetConfig.class);
+
+    public EpaDatasetConfig(@Value("${mpg.source:carapi}") String mpgSource, @Value("${epa.dataset.path:}") String datasetPath) {
+        if ("epa".equalsIgnoreCase(mpgSource.trim()) && datasetPath.isBlank()) {
+            throw new IllegalStateException("mpg.source=epa requires epa.dataset.path to point at the EPA vehicles.csv "
+                + "(https://www.fueleconomy.gov/feg/download.shtml)");
+        }
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "epa.dataset.path")
+    public EpaFuelEconomyIndex epaFuelEconomyIndex(@Value("${epa.dataset.path}") Path path) throws IOException {
+        long start = System.nanoTime();
+        EpaFuelEconomyIndex index = EpaFuelEconomyIndex.load(path);
+        log.info("Loaded {} EPA vehicles from {} in {} ms", index.size(), path, (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "epa.dataset.path")
+    public VehicleCatalog vehicleCatalog(EpaFuelEconomyIndex index) {
+        return VehicleCatalog.from(index);
+    }
+}
@@ -1,14 +1,44 @@
 package config;
 
 import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class HttpClientConfig {
+    /**
+     * Dedicated executor for HttpClient response handling and async callbacks,
+     * so upstream I/O never competes with the common fork-join pool.
+     */
+    @Bean(name = "httpClientExecutor", destroyMethod = "shutdown")
+    public ExecutorService httpClientExecutor(HttpClientProperties properties,
+                                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-client-", 1).factory());
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(properties.getExecutorThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "http-client-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     @Bean
-    public HttpClient httpClient() {
-        return HttpClient.newHttpClient(); // This way we don't have to create new HttpClient instances in every API service
+    public HttpClient httpClient(HttpClientProperties properties, @Qualifier("httpClientExecutor") ExecutorService executor) {
+        // This way we don't have to create new HttpClient instances in every API service;
+        // one client keeps one connection pool per upstream host
+        return HttpClient.newBuilder()
+                .version(properties.getVersion())
+                .connectTimeout(properties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
     }
 }
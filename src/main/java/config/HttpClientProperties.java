@@ -0,0 +1,61 @@
+package config;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tuning for the shared upstream HttpClient (EIA and carapi), bound from application.properties.
+ */
+@Component
+public class HttpClientProperties {
+    private final Duration _connectTimeout;
+    private final Duration _requestTimeout;
+    private final HttpClient.Version _version;
+    private final int _executorThreads;
+    private final int _maxConcurrentPerHost;
+    private final int _maxQueuedPerHost;
+    private final Duration _maxWaitForSlot;
+    private final int _breakerWindowSize;
+    private final int _breakerMinimumCalls;
+    private final int _breakerFailureRateThreshold;
+    private final Duration _breakerOpenDuration;
+
+    public HttpClientProperties(@Value("${http.client.connect-timeout:3s}") Duration connectTimeout,
+                                @Value("${http.client.request-timeout:8s}") Duration requestTimeout,
+                                @Value("${http.client.version:HTTP_2}") HttpClient.Version version,
+                                @Value("${http.client.executor-threads:8}") int executorThreads,
+                                @Value("${http.client.max-concurrent-per-host:32}") int maxConcurrentPerHost,
+                                @Value("${http.client.max-queued-per-host:64}") int maxQueuedPerHost,
+                                @Value("${http.client.max-wait-for-slot:500ms}") Duration maxWaitForSlot,
+                                @Value("${http.client.breaker.window-size:20}") int breakerWindowSize,
+                                @Value("${http.client.breaker.minimum-calls:10}") int breakerMinimumCalls,
+                                @Value("${http.client.breaker.failure-rate-threshold:50}") int breakerFailureRateThreshold,
+                                @Value("${http.client.breaker.open-duration:30s}") Duration breakerOpenDuration) {
+        this._connectTimeout = connectTimeout;
+        this._requestTimeout = requestTimeout;
+        this._version = version;
+        this._executorThreads = executorThreads;
+        this._maxConcurrentPerHost = maxConcurrentPerHost;
+        this._maxQueuedPerHost = maxQueuedPerHost;
+        this._maxWaitForSlot = maxWaitForSlot;
+        this._breakerWindowSize = breakerWindowSize;
+        this._breakerMinimumCalls = breakerMinimumCalls;
+        this._breakerFailureRateThreshold = breakerFailureRateThreshold;
+        this._breakerOpenDuration = breakerOpenDuration;
+    }
+
+    public Duration getConnectTimeout() { return _connectTimeout; }
+    public Duration getRequestTimeout() { return _requestTimeout; }
+    public HttpClient.Version getVersion() { return _version; }
+    public int getExecutorThreads() { return _executorThreads; }
+    public int getMaxConcurrentPerHost() { return _maxConcurrentPerHost; }
+    public int getMaxQueuedPerHost() { return _maxQueuedPerHost; }
+    public Duration getMaxWaitForSlot() { return _maxWaitForSlot; }
+    public int getBreakerWindowSize() { return _breakerWindowSize; }
+    public int getBreakerMinimumCalls() { return _breakerMinimumCalls; }
+    public int getBreakerFailureRateThreshold() { return _breakerFailureRateThreshold; }
+    public Duration getBreakerOpenDuration() { return _breakerOpenDuration; }
+}
@@ -0,0 +1,24 @@
+package config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import model.MaintenanceCosts;
+import model.MaintenanceSchedule;
+import service.impl.MaintenanceScheduleParser;
+
+/**
+ * Maintenance line items added to fuel for total cost of ownership.
+ */
+@Configuration
+public class MaintenanceConfig {
+
+    @Bean
+    public MaintenanceSchedule maintenanceSchedule(
+            @Value("${maintenance.oil-change.cost:50.00}") double oilChangeCost,
+            @Value("${maintenance.oil-change.miles:5000}") int milesPerOilChange,
+            @Value("${maintenance.items:}") String items) {
+        return MaintenanceScheduleParser.parse(new MaintenanceCosts(oilChangeCost, milesPerOilChange), items);
+    }
+}
@@ -0,0 +1,55 @@
+package config;
+
+import java.util.function.ToLongFunction;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import service.impl.CachedCityMpgService;
+import service.impl.CachedGasPriceService;
+
+/**
+ * Publishes the caches' own hit/miss counters to Micrometer, so the cache classes
+ * stay free of metrics code and the registry reads the counters at scrape time.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder gasPriceCacheMetrics(ObjectProvider<CachedGasPriceService> cache) {
+        return registry -> cache.ifAvailable(gas -> {
+            cacheRequests(registry, "gas.price.cache.requests", "hit", gas, CachedGasPriceService::getHitCount);
+            cacheRequests(registry, "gas.price.cache.requests", "stale_hit", gas, CachedGasPriceService::getStaleHitCount);
+            cacheRequests(registry, "gas.price.cache.requests", "miss", gas, CachedGasPriceService::getMissCount);
+            cacheRequests(registry, "gas.price.cache.requests", "collapsed", gas, CachedGasPriceService::getCollapsedCount);
+            cacheRequests(registry, "gas.price.cache.requests", "fallback", gas, CachedGasPriceService::getFallbackCount);
+            cacheRequests(registry, "gas.price.cache.requests", "region_fallback", gas, CachedGasPriceService::getRegionFallbackCount);
+            Gauge.builder("gas.price.cache.size", gas, CachedGasPriceService::size)
+                .description("Cached (region, fuel type) prices")
+                .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder mpgCacheMetrics(ObjectProvider<CachedCityMpgService> cache) {
+        return registry -> cache.ifAvailable(mpg -> {
+            cacheRequests(registry, "mpg.cache.requests", "memory_hit", mpg, CachedCityMpgService::getMemoryHitCount);
+            cacheRequests(registry, "mpg.cache.requests", "database_hit", mpg, CachedCityMpgService::getDatabaseHitCount);
+            cacheRequests(registry, "mpg.cache.requests", "miss", mpg, CachedCityMpgService::getMissCount);
+            cacheRequests(registry, "mpg.cache.requests", "collapsed", mpg, CachedCityMpgService::getCollapsedCount);
+        });
+    }
+
+    private static <T> void cacheRequests(MeterRegistry registry, String name, String result, T cache,
+                                          ToLongFunction<T> count) {
+        FunctionCounter.builder(name, cache, c -> count.applyAsLong(c))
+            .description("Cache lookups by result")
+            .tag("result", result)
+            .register(registry);
+    }
+}
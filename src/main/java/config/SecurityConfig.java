@@ -2,6 +2,7 @@ package config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -19,6 +20,7 @@ public class SecurityConfig {
             .csrf(AbstractHttpConfigurer::disable) // Disable CSRF for simplicity; consider enabling in production
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/login", "/", "/register", "/calculate", "/styles/**", "/css/**", "/js/**").permitAll() // Allow login and registration without authentication
+                .requestMatchers("/actuator/health").permitAll() // Liveness checks carry no data
                 .anyRequest().authenticated() // Require authentication for all other requests
             )
             .formLogin(form -> form
@@ -32,7 +34,8 @@ public class SecurityConfig {
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED); 
                 }) 
                 .permitAll() // Configure form login
-            );
+            )
+            .httpBasic(Customizer.withDefaults()); // Lets the Prometheus scraper authenticate to /actuator/prometheus
         return http.build();
     }
     
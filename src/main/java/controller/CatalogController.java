@@ -0,0 +1,46 @@
+package controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import service.impl.VehicleCatalog;
+
+@RestController
+public class CatalogController {
+    private static final int MAX_LIMIT = 100;
+
+    private final ObjectProvider<VehicleCatalog> _catalog;
+
+    public CatalogController(ObjectProvider<VehicleCatalog> catalog) {
+        this._catalog = catalog;
+    }
+
+    // Suggestions for the next field the user hasn't filled in yet: year, then make, model, submodel
+    @GetMapping("/api/catalog")
+    public List<String> suggest(@RequestParam(name = "year", required = false) String year,
+                                @RequestParam(name = "make", required = false) String make,
+                                @RequestParam(name = "model", required = false) String model,
+                                @RequestParam(name = "prefix", defaultValue = "") String prefix,
+                                @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        VehicleCatalog catalog = _catalog.getIfAvailable();
+        if (catalog == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Vehicle catalog is not loaded");
+        }
+        int capped = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        if (isBlank(year)) return catalog.years(prefix, capped);
+        if (isBlank(make)) return catalog.makes(year, prefix, capped);
+        if (isBlank(model)) return catalog.models(year, make, prefix, capped);
+        return catalog.submodels(year, make, model, prefix, capped);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -1,22 +1,48 @@
 package controller;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import model.PriceHistoryResponse;
 import service.api.GasPriceService;
+import service.impl.GasPriceHistoryService;
+import service.impl.RegionResolver;
 
 @RestController
 public class PriceController {
+    private static final int MAX_WEEKS = 520;
+
     private final GasPriceService _gasPriceService;
+    private final GasPriceHistoryService _historyService;
+    private final RegionResolver _regions;
 
-    public PriceController(GasPriceService gasPriceService) {
+    public PriceController(GasPriceService gasPriceService, GasPriceHistoryService historyService, RegionResolver regions) {
         this._gasPriceService = gasPriceService;
+        this._historyService = historyService;
+        this._regions = regions;
     }
 
     @GetMapping("/price")
     public double getPrice(@RequestParam String region, @RequestParam String fuelType) throws Exception {
-        return _gasPriceService.getPrice(region, fuelType);
+        return _gasPriceService.getPrice(_regions.resolveCode(region), fuelType);
+    }
+
+    // Served from the stored weekly history; never calls EIA
+    @GetMapping("/api/price/history")
+    public PriceHistoryResponse getHistory(@RequestParam String region,
+                                           @RequestParam(defaultValue = "EPMR") String fuelType,
+                                           @RequestParam(defaultValue = "52") int weeks,
+                                           @RequestParam(defaultValue = "4") int window) {
+        String duoarea = _regions.resolveCode(region);
+        PriceHistoryResponse history = _historyService.history(duoarea, fuelType,
+            Math.max(1, Math.min(weeks, MAX_WEEKS)), Math.max(1, Math.min(window, MAX_WEEKS)));
+        if (history == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No price history for " + duoarea + " " + fuelType);
+        }
+        return history;
     }
 
 }
@@ -1,6 +1,10 @@
 package controller;
 
+import java.util.Locale;
+
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -10,6 +14,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import entity.UserEntity;
 import repository.UserRepository;
+import service.impl.UserAuthentication;
 
 @RestController
 public class RegistrationController {
@@ -20,9 +25,13 @@ public class RegistrationController {
     @Autowired
     private final BCryptPasswordEncoder _passwordEncoder;
 
-    public RegistrationController(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder) {
+    private final UserAuthentication _userAuthentication;
+
+    public RegistrationController(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder,
+                                  UserAuthentication userAuthentication) {
         this._userRepository = userRepository;
         this._passwordEncoder = passwordEncoder;
+        this._userAuthentication = userAuthentication;
     }
 
     @PostMapping("/register")
@@ -30,22 +39,35 @@ public class RegistrationController {
         // System.out.println("Registration attempt for email: " + userEntity.getUsername());
 
     try {
-        // 1. Check if user already exists
-        if (_userRepository.findByEmail(userEntity.getUsername()).isPresent()) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body("Email already in use");
-        }
-
-        // 2. Encode password
+        // 1. Encode password
         userEntity.setPassword(_passwordEncoder.encode(userEntity.getPassword()));
 
-        // 3. Save
+        // 2. Save; the unique constraint on email rejects duplicates, so no lookup first
         _userRepository.save(userEntity);
+        _userAuthentication.evict(userEntity.getUsername());
         // System.out.println("User saved with ID: " + savedUser.getUserId());
 
         return ResponseEntity.ok("User registered successfully");
+    } catch (DataIntegrityViolationException e) {
+        if (!isDuplicateEmail(e)) {
+            return ResponseEntity.internalServerError().body("Database error: " + e.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Email already in use");
     } catch (Exception e) {
         // e.printStackTrace(); // This will show database errors in your IDE console
         return ResponseEntity.internalServerError().body("Database error: " + e.getMessage());
     }
     }
+
+    // Only the unique email constraint means the address is taken; a missing column or any other violation is not a conflict.
+    // Matched by containment: H2 reports it upper-cased with a schema prefix and index suffix.
+    private static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String name = violation.getConstraintName();
+                return name != null && name.toLowerCase(Locale.ROOT).contains(UserEntity.EMAIL_CONSTRAINT);
+            }
+        }
+        return false;
+    }
 }
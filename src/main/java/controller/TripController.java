@@ -0,0 +1,80 @@
+package controller;
+
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import entity.UserEntity;
+import model.TripCostSummary;
+import repository.VehicleRepository;
+import service.impl.TripCostCalculator;
+
+@RestController
+public class TripController {
+    private final TripCostCalculator _tripCalculator;
+    private final VehicleRepository _vehicleRepository;
+    private final ObjectMapper _objectMapper;
+
+    public TripController(TripCostCalculator tripCalculator, VehicleRepository vehicleRepository, ObjectMapper objectMapper) {
+        this._tripCalculator = tripCalculator;
+        this._vehicleRepository = vehicleRepository;
+        this._objectMapper = objectMapper;
+    }
+
+    // CSV trip log in (date,miles,region), NDJSON out: one line per trip as it is priced, then the totals
+    @PostMapping(value = "/api/trips/cost", consumes = { "text/csv", MediaType.TEXT_PLAIN_VALUE }, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> costTrips(@AuthenticationPrincipal UserEntity currentUser,
+                                                           @RequestParam(required = false) Long vehicleId,
+                                                           @RequestParam(required = false) Double mpg,
+                                                           @RequestParam(defaultValue = "EPMR") String fuelType,
+                                                           InputStream csv) {
+        double cityMpg = resolveMpg(currentUser, vehicleId, mpg);
+        StreamingResponseBody body = (OutputStream out) -> {
+            OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+            Reader reader = new InputStreamReader(csv, StandardCharsets.UTF_8);
+            TripCostSummary summary = _tripCalculator.calculate(reader, cityMpg, fuelType, trip -> {
+                buffered.write(_objectMapper.writeValueAsBytes(trip));
+                buffered.write('\n');
+            });
+            buffered.write(_objectMapper.writeValueAsBytes(summary));
+            buffered.write('\n');
+            buffered.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // A saved vehicle's city MPG for logged-in users, otherwise the mpg parameter; either must be positive
+    private double resolveMpg(UserEntity currentUser, Long vehicleId, Double mpg) {
+        if (vehicleId != null) {
+            if (currentUser == null) {
+                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Log in to use a saved vehicle");
+            }
+            double cityMpg = _vehicleRepository.findByVehicleIdAndOwnerId(vehicleId, currentUser)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Vehicle not found for user"))
+                .getCityMpg();
+            if (cityMpg <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Saved vehicle has no MPG; pass a positive mpg instead");
+            }
+            return cityMpg;
+        }
+        if (mpg == null || mpg <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide vehicleId or a positive mpg");
+        }
+        return mpg;
+    }
+}
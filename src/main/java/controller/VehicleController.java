@@ -1,64 +1,137 @@
 package controller;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import entity.UserEntity;
+import entity.VehicleCostResultEntity;
 import entity.VehicleEntity;
 import model.CalculateResponse;
-import model.VehicleDisplay;
 import model.VehicleRequest;
+import model.VehicleSummary;
 import repository.VehicleRepository;
+import service.api.GasPriceService;
 import service.impl.CostPerMileCalculator;
+import service.impl.RegionResolver;
+import service.impl.VehicleCostResultCache;
 import service.impl.VehicleService;
 
 @RestController
 public class VehicleController {
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final VehicleRepository _vehicleRepository;
     private final VehicleService _vehicleService;
     private final CostPerMileCalculator _costCalculator;   
+    private final VehicleCostResultCache _results;
+    private final GasPriceService _gasPriceService;
+    private final RegionResolver _regions;
+    private final Executor _blockingExecutor;
     
-    public VehicleController(VehicleRepository vehicleRepository, VehicleService vehicleService, CostPerMileCalculator costCalculator) {
+    public VehicleController(VehicleRepository vehicleRepository, VehicleService vehicleService, CostPerMileCalculator costCalculator,
+                             VehicleCostResultCache results, GasPriceService gasPriceService, RegionResolver regions,
+                             @Qualifier("blockingExecutor") Executor blockingExecutor) {
         this._costCalculator = costCalculator;
         this._vehicleRepository = vehicleRepository;
         this._vehicleService = vehicleService;
-
+        this._results = results;
+        this._gasPriceService = gasPriceService;
+        this._regions = regions;
+        this._blockingExecutor = blockingExecutor;
     }
 
+    // Body stays a plain array for the dashboard; X-Total-Count tells callers whether more pages exist
     @GetMapping("/api/vehicles")
-    public ResponseEntity<?> getVehicles(@AuthenticationPrincipal UserEntity currentUser) {
+    public ResponseEntity<?> getVehicles(@AuthenticationPrincipal UserEntity currentUser,
+                                         @RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "100") int size) {
         if (currentUser == null) {
             return ResponseEntity.status(401).body("User not logged in");
         }
 
-        VehicleDisplay displayVehicles = new VehicleDisplay(_vehicleService.getVehiclesForUser(currentUser));
+        PageRequest pageRequest = PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)), Sort.by("vehicleId"));
+        Page<VehicleSummary> vehicles = _vehicleService.getVehiclesForUser(currentUser, pageRequest);
 
-        List<VehicleEntity> vehicles = displayVehicles.getVehicles();
+        return ResponseEntity.ok()
+            .header("X-Total-Count", Long.toString(vehicles.getTotalElements()))
+            .body(vehicles.getContent());
+    }
 
-        return ResponseEntity.ok(vehicles);
+    // Cost per mile for all of the user's vehicles: one vehicle query and one gas price lookup.
+    // Without a gas price every cost would read 0, so that is a 503 rather than a list of zeros.
+    @GetMapping("/api/vehicles/costs")
+    public ResponseEntity<?> getCosts(@AuthenticationPrincipal UserEntity currentUser,
+                                      @RequestParam(defaultValue = "NUS") String region,
+                                      @RequestParam(defaultValue = "EPMR") String fuelType) throws Exception {
+        if (currentUser == null) {
+            return ResponseEntity.status(401).body("User not logged in");
+        }
+
+        double gasPrice;
+        try {
+            gasPrice = _gasPriceService.getPrice(_regions.resolveCode(region), fuelType);
+        } catch (IOException e) { // EIA error, timeout or open circuit
+            gasPrice = 0.0;
+        }
+        if (gasPrice <= 0.0) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "No gas price available for " + region + " " + fuelType);
+        }
+        return ResponseEntity.ok()
+            .header("X-Gas-Price", Double.toString(gasPrice))
+            .body(_vehicleService.getVehicleCosts(currentUser, gasPrice));
     }
 
+    // Results already calculated for this week's price, for all of the user's vehicles in one query
+    @GetMapping("/api/vehicles/results")
+    public ResponseEntity<?> getResults(@AuthenticationPrincipal UserEntity currentUser,
+                                        @RequestParam String region, @RequestParam String fuelType) throws Exception {
+        if (currentUser == null) {
+            return ResponseEntity.status(401).body("User not logged in");
+        }
+
+        // Results are stored under the resolved code, as CostPerMileCalculator resolves it
+        String duoarea = _regions.resolveCode(region);
+        List<VehicleCostResultEntity> results = _results.findCurrentForOwner(currentUser.getUserId(), duoarea, fuelType,
+            _gasPriceService.getQuote(duoarea, fuelType).getPeriod());
+        return ResponseEntity.ok(results);
+    }
+
+    // Saving looks up the MPG and inserts the vehicle, both blocking, so that runs on the blocking executor;
+    // returning a future lets Spring MVC release the request thread, as /api/calculate does
     @PostMapping("/api/vehicle/save-calculate")
-    public ResponseEntity<?> saveVehicle(@AuthenticationPrincipal UserEntity currentUser, @RequestBody VehicleRequest request) throws Exception{
-        // if (currentUser == null) {
-        //     System.out.println("DEBUG: User is NULL - Session not persisting!");
-        //     return ResponseEntity.status(401).body("User not logged in");
-        // }
-        // System.out.println("DEBUG: Logged in as: " + currentUser.getUsername());
-        
-        if (request.getVehicleId() == null) {
-            VehicleEntity savedVehicle = _vehicleService.saveNewVehicle(request, currentUser);
-        _vehicleRepository.save(savedVehicle);
-        request.setVehicleId(savedVehicle.getVehicleId()); // Set the generated ID back to the request for calculation
-        } 
-        
-        CalculateResponse calculateResponse = _costCalculator.calculateCostPerMile(request, currentUser);
-        return ResponseEntity.ok(calculateResponse);
+    public CompletableFuture<CalculateResponse> saveVehicle(@AuthenticationPrincipal UserEntity currentUser, @RequestBody VehicleRequest request) {
+        if (request.getVehicleId() != null) {
+            return _costCalculator.calculateCostPerMileAsync(request, currentUser);
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                VehicleEntity savedVehicle = _vehicleService.saveNewVehicle(request, currentUser);
+                _vehicleRepository.save(savedVehicle);
+                request.setVehicleId(savedVehicle.getVehicleId()); // Set the generated ID back to the request for calculation
+                return request;
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, _blockingExecutor).thenCompose(saved -> _costCalculator.calculateCostPerMileAsync(saved, currentUser));
     }
 }
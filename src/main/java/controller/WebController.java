@@ -1,26 +1,85 @@
 package controller;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import model.CalculateResponse;
 import model.VehicleRequest;
+import service.impl.BatchCostCalculator;
 import service.impl.CostPerMileCalculator;
 
 @RestController
 public class WebController {
     private final CostPerMileCalculator _costCalculator;
+    private final BatchCostCalculator _batchCalculator;
+    private final ObjectWriter _ndjsonWriter;
 
-    public WebController(CostPerMileCalculator costCalculator) {
+    public WebController(CostPerMileCalculator costCalculator, BatchCostCalculator batchCalculator, ObjectMapper objectMapper) {
         this._costCalculator = costCalculator;
+        this._batchCalculator = batchCalculator;
+        this._ndjsonWriter = objectMapper.writerFor(CalculateResponse.class);
     }
 
+    // Returning a future lets Spring MVC release the request thread while EIA/carapi respond
     @PostMapping("/api/calculate")
-    public CalculateResponse calculateCostPerMileApi(@RequestBody VehicleRequest request) throws Exception {
-        
-        CalculateResponse response = _costCalculator.calculateCostPerMile(request, null);
+    public CompletableFuture<CalculateResponse> calculateCostPerMileApi(@RequestBody VehicleRequest request) {
+
+        return _costCalculator.calculateCostPerMileAsync(request, null);
+    }
+
+    // Responses come back in the same order as the requests
+    @PostMapping(value = "/api/calculate/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<List<CalculateResponse>> calculateBatchApi(@RequestBody List<VehicleRequest> requests) {
+        checkBatchSize(requests);
+        return _batchCalculator.calculateAll(requests);
+    }
+
+    // Accept: application/x-ndjson writes one response per line as each chunk resolves.
+    // Lines are sent from the batch's completion callbacks, so no thread waits on the lookups.
+    @PostMapping(value = "/api/calculate/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> calculateBatchStreamApi(@RequestBody List<VehicleRequest> requests) {
+        checkBatchSize(requests);
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        _batchCalculator.calculateEach(requests, response -> emitter.send(ndjsonLine(response), MediaType.APPLICATION_NDJSON))
+            .whenComplete((done, error) -> {
+                if (error != null) {
+                    emitter.completeWithError(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                } else {
+                    emitter.complete();
+                }
+            });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+    }
+
+    private byte[] ndjsonLine(CalculateResponse response) throws IOException {
+        byte[] json = _ndjsonWriter.writeValueAsBytes(response);
+        byte[] line = Arrays.copyOf(json, json.length + 1);
+        line[json.length] = '\n';
+        return line;
+    }
 
-        return response;
+    private void checkBatchSize(List<VehicleRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch must contain at least one vehicle");
+        }
+        if (requests.size() > _batchCalculator.getMaxBatchSize()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Batch is limited to " + _batchCalculator.getMaxBatchSize() + " vehicles");
+        }
     }
 }
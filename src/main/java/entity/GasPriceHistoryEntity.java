@@ -0,0 +1,47 @@
+package entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * Weekly retail price published by EIA for one duoarea and product.
+ */
+@Entity
+@Table(name = "gas_price_history")
+public class GasPriceHistoryEntity {
+
+    @EmbeddedId
+    private GasPriceHistoryKey key;
+
+    @Column(nullable = false)
+    private double price;
+
+    @Column(nullable = false)
+    private Instant fetchedAt;
+
+    public GasPriceHistoryEntity() {
+        // Default constructor for JPA
+    }
+
+    public GasPriceHistoryEntity(GasPriceHistoryKey key, double price, Instant fetchedAt) {
+        this.key = key;
+        this.price = price;
+        this.fetchedAt = fetchedAt;
+    }
+
+    public GasPriceHistoryKey getKey() {
+        return key;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+}
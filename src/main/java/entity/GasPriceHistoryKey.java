@@ -0,0 +1,58 @@
+package entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * One EIA series point: duoarea (e.g. SCA), product (e.g. EPMR) and weekly period.
+ */
+@Embeddable
+public class GasPriceHistoryKey implements Serializable {
+
+    @Column(nullable = false)
+    private String duoarea;
+
+    @Column(nullable = false)
+    private String product;
+
+    @Column(nullable = false)
+    private LocalDate period;
+
+    public GasPriceHistoryKey() {
+        // Default constructor for JPA
+    }
+
+    public GasPriceHistoryKey(String duoarea, String product, LocalDate period) {
+        this.duoarea = duoarea;
+        this.product = product;
+        this.period = period;
+    }
+
+    public String getDuoarea() {
+        return duoarea;
+    }
+
+    public String getProduct() {
+        return product;
+    }
+
+    public LocalDate getPeriod() {
+        return period;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof GasPriceHistoryKey key)) return false;
+        return Objects.equals(duoarea, key.duoarea) && Objects.equals(product, key.product) && Objects.equals(period, key.period);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(duoarea, product, period);
+    }
+}
@@ -0,0 +1,111 @@
+package entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import model.MpgFigures;
+
+/**
+ * Persisted result of a carapi mileage lookup, keyed by normalized year/make/model/submodel.
+ * A cityMpg of 0.0 means carapi had no data for the vehicle. Highway and combined
+ * MPG are null on rows cached before they were recorded.
+ */
+@Entity
+@Table(name = "mpg_lookup_cache")
+public class MpgLookupEntity {
+
+    @Id
+    private String lookupKey;
+
+    @Column(nullable = false)
+    private String year;
+
+    @Column(nullable = false)
+    private String make;
+
+    @Column(nullable = false)
+    private String model;
+
+    private String submodel;
+
+    @Column(nullable = false)
+    private double cityMpg;
+
+    private Double highwayMpg;
+
+    private Double combinedMpg;
+
+    @Column(nullable = false)
+    private Instant fetchedAt;
+
+    public MpgLookupEntity() {
+        // Default constructor for JPA
+    }
+
+    public MpgLookupEntity(String lookupKey, String year, String make, String model, String submodel, MpgFigures figures, Instant fetchedAt) {
+        this.lookupKey = lookupKey;
+        this.year = year;
+        this.make = make;
+        this.model = model;
+        this.submodel = submodel;
+        this.cityMpg = figures.getCityMpg();
+        this.highwayMpg = figures.rawHighwayMpg();
+        this.combinedMpg = figures.rawCombinedMpg();
+        this.fetchedAt = fetchedAt;
+    }
+
+    public String getLookupKey() {
+        return lookupKey;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public String getMake() {
+        return make;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public String getSubmodel() {
+        return submodel;
+    }
+
+    public double getCityMpg() {
+        return cityMpg;
+    }
+
+    public void setCityMpg(double cityMpg) {
+        this.cityMpg = cityMpg;
+    }
+
+    public Double getHighwayMpg() {
+        return highwayMpg;
+    }
+
+    public Double getCombinedMpg() {
+        return combinedMpg;
+    }
+
+    public boolean hasAllFigures() {
+        return highwayMpg != null && combinedMpg != null;
+    }
+
+    public MpgFigures getMpgFigures() {
+        return new MpgFigures(cityMpg, highwayMpg == null ? 0.0 : highwayMpg, combinedMpg == null ? 0.0 : combinedMpg);
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public void setFetchedAt(Instant fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+}
@@ -13,28 +13,32 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 
 @Entity
-@Table(name = "Users")
+// Named as PostgreSQL names the migration's UNIQUE email column, so both schemas report the same constraint
+@Table(name = "Users", uniqueConstraints = @UniqueConstraint(name = UserEntity.EMAIL_CONSTRAINT, columnNames = "email"))
 public class UserEntity implements UserDetails {
-    
+    public static final String EMAIL_CONSTRAINT = "users_email_key";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long userId;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
     private String passwordHash;
 
-    @OneToMany(mappedBy = "ownerId", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToMany(mappedBy = "ownerId", fetch = FetchType.LAZY, cascade = CascadeType.REMOVE, orphanRemoval = true)
     @JsonIgnore
     private final List<VehicleEntity> vehicles = new ArrayList<>();
 
@@ -74,8 +78,8 @@ public class UserEntity implements UserDetails {
         return this.passwordHash;
     }
 
+    // Lazy; listings should use VehicleRepository.findSummariesByOwner instead of initializing this
     public List<VehicleEntity> getVehicles() {
-        System.out.println("Getting vehicles for user: " + this.email + ", found: " + this.vehicles.size());
         return this.vehicles;
     }
 
@@ -0,0 +1,110 @@
+package entity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Latest cost-per-mile calculated for a saved vehicle in one region and fuel type,
+ * with the EIA week and city MPG it was calculated from.
+ */
+@Entity
+@Table(name = "vehicle_cost_results")
+public class VehicleCostResultEntity {
+
+    @Id
+    @JsonIgnore
+    private String resultKey;
+
+    @Column(nullable = false)
+    private Long vehicleId;
+
+    @JsonIgnore
+    @Column(nullable = false)
+    private Long ownerId;
+
+    @Column(nullable = false)
+    private String region;
+
+    @Column(nullable = false)
+    private String fuelType;
+
+    @Column(nullable = false)
+    private LocalDate pricePeriod;
+
+    @Column(nullable = false)
+    private double cityMpg;
+
+    @Column(nullable = false)
+    private double gasPrice;
+
+    @Column(nullable = false)
+    private double costPerMile;
+
+    @Column(nullable = false)
+    private Instant computedAt;
+
+    public VehicleCostResultEntity() {
+        // Default constructor for JPA
+    }
+
+    public VehicleCostResultEntity(String resultKey, Long vehicleId, Long ownerId, String region, String fuelType,
+                                   LocalDate pricePeriod, double cityMpg, double gasPrice, double costPerMile, Instant computedAt) {
+        this.resultKey = resultKey;
+        this.vehicleId = vehicleId;
+        this.ownerId = ownerId;
+        this.region = region;
+        this.fuelType = fuelType;
+        this.pricePeriod = pricePeriod;
+        this.cityMpg = cityMpg;
+        this.gasPrice = gasPrice;
+        this.costPerMile = costPerMile;
+        this.computedAt = computedAt;
+    }
+
+    public String getResultKey() {
+        return resultKey;
+    }
+
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getFuelType() {
+        return fuelType;
+    }
+
+    public LocalDate getPricePeriod() {
+        return pricePeriod;
+    }
+
+    public double getCityMpg() {
+        return cityMpg;
+    }
+
+    public double getGasPrice() {
+        return gasPrice;
+    }
+
+    public double getCostPerMile() {
+        return costPerMile;
+    }
+
+    public Instant getComputedAt() {
+        return computedAt;
+    }
+}
@@ -4,17 +4,22 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import listener.VehicleCostResultInvalidator;
+import model.MpgFigures;
 import model.Vehicle;
 
 @Entity
-@Table(name = "Vehicles")
+@EntityListeners(VehicleCostResultInvalidator.class)
+@Table(name = "Vehicles", indexes = @Index(name = "idx_vehicles_user_id", columnList = "userId"))
 public class VehicleEntity implements Vehicle{
     
     @Id
@@ -35,6 +40,11 @@ public class VehicleEntity implements Vehicle{
     @Column(nullable = false)
     private double cityMpg = 20.0;
 
+    // Null for vehicles saved before highway and combined MPG were recorded
+    private Double highwayMpg;
+
+    private Double combinedMpg;
+
     
     @JsonIgnore
     @ManyToOne(fetch=FetchType.LAZY)
@@ -107,6 +117,27 @@ public class VehicleEntity implements Vehicle{
         return cityMpg;
     }
 
+    public void setHighwayMpg(Double highwayMpg) {
+        this.highwayMpg = highwayMpg;
+    }
+
+    public Double getHighwayMpg() {
+        return highwayMpg;
+    }
+
+    public void setCombinedMpg(Double combinedMpg) {
+        this.combinedMpg = combinedMpg;
+    }
+
+    public Double getCombinedMpg() {
+        return combinedMpg;
+    }
+
+    @JsonIgnore
+    public MpgFigures getMpgFigures() {
+        return new MpgFigures(cityMpg, highwayMpg == null ? 0.0 : highwayMpg, combinedMpg == null ? 0.0 : combinedMpg);
+    }
+
 
     public void setOwnerId(UserEntity ownerId) {
         this.ownerId = ownerId;
@@ -0,0 +1,31 @@
+package listener;
+
+import org.springframework.stereotype.Component;
+
+import entity.VehicleEntity;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import service.impl.VehicleCostResultCache;
+
+/**
+ * JPA listener on {@link VehicleEntity}: any update or delete of a saved vehicle drops
+ * its cached cost results, so a changed city MPG is never answered from memory.
+ * Hibernate obtains it from the Spring context, which supplies the cache.
+ * Kept out of the entity and service packages so entities depend on neither.
+ */
+@Component
+public class VehicleCostResultInvalidator {
+    private final VehicleCostResultCache _results;
+
+    public VehicleCostResultInvalidator(VehicleCostResultCache results) {
+        this._results = results;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void evict(VehicleEntity vehicle) {
+        if (vehicle.getVehicleId() != null) {
+            _results.evictVehicle(vehicle.getVehicleId());
+        }
+    }
+}
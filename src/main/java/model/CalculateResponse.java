@@ -1,14 +1,32 @@
 package model;
 
+import java.util.Map;
+
 public class CalculateResponse {
     private double cityMpg;
     private double gasPrice;
     private double costPerMile;
+    // True when an upstream lookup was unavailable and the figures are incomplete
+    private boolean degraded;
+    // Fuel plus scheduled maintenance; costPerMile above stays fuel only
+    private double maintenanceCostPerMile;
+    private double totalCostPerMile;
+    private Map<String, Double> breakdown;
+    // Cumulative cost at each mileage, only when a horizon was requested
+    private double[] projectionMiles;
+    private double[] projectionCosts;
+    // Batch items only: why this item was not calculated (the reason a single calculation fails with 400)
+    private String error;
 
     public CalculateResponse(double cityMpg, double gasPrice, double costPerMile) {
+        this(cityMpg, gasPrice, costPerMile, false);
+    }
+
+    public CalculateResponse(double cityMpg, double gasPrice, double costPerMile, boolean degraded) {
         this.cityMpg = cityMpg;
         this.gasPrice = gasPrice;
         this.costPerMile = costPerMile;
+        this.degraded = degraded;
     }
 
     public double getCityMpg() {
@@ -34,4 +52,51 @@ public class CalculateResponse {
     public void setCostPerMile(double costPerMile) {
         this.costPerMile = costPerMile;
     }
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    public void setDegraded(boolean degraded) {
+        this.degraded = degraded;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public double getMaintenanceCostPerMile() {
+        return maintenanceCostPerMile;
+    }
+
+    public double getTotalCostPerMile() {
+        return totalCostPerMile;
+    }
+
+    public Map<String, Double> getBreakdown() {
+        return breakdown;
+    }
+
+    public void setOwnership(TotalCostOfOwnership ownership) {
+        this.maintenanceCostPerMile = ownership.getMaintenanceCostPerMile();
+        this.totalCostPerMile = ownership.getTotalCostPerMile();
+        this.breakdown = ownership.breakdown();
+    }
+
+    public double[] getProjectionMiles() {
+        return projectionMiles;
+    }
+
+    public double[] getProjectionCosts() {
+        return projectionCosts;
+    }
+
+    public void setProjection(double[] projectionMiles, double[] projectionCosts) {
+        this.projectionMiles = projectionMiles;
+        this.projectionCosts = projectionCosts;
+    }
 }
@@ -0,0 +1,25 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * A weekly EIA gas price together with the week (period) it was published for.
+ * The period is null when the price did not come from EIA (e.g. a failed fetch).
+ */
+public class GasPriceQuote {
+    private final double _price;
+    private final LocalDate _period;
+
+    public GasPriceQuote(double price, LocalDate period) {
+        this._price = price;
+        this._period = period;
+    }
+
+    public double getPrice() {
+        return _price;
+    }
+
+    public LocalDate getPeriod() {
+        return _period;
+    }
+}
@@ -0,0 +1,65 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Recurring maintenance line items, each a {@link MaintenanceCosts} paid once per interval
+ * of miles. The oil change is always the first item. Items are held in arrays and copied
+ * on the way in, so a schedule never changes and projections never box or allocate per item.
+ */
+public class MaintenanceSchedule {
+    public static final String OIL_CHANGE = "Oil change";
+
+    private final String[] _names;
+    private final MaintenanceCosts[] _items;
+
+    private MaintenanceSchedule(String[] names, MaintenanceCosts[] items) {
+        this._names = names;
+        this._items = items;
+    }
+
+    public static MaintenanceSchedule of(MaintenanceCosts oil) {
+        return of(oil, List.of(), List.of());
+    }
+
+    /**
+     * @param names one name per item, in the same order as {@code items}
+     * @param items cost and interval of each item after the oil change
+     */
+    public static MaintenanceSchedule of(MaintenanceCosts oil, List<String> names, List<MaintenanceCosts> items) {
+        if (names.size() != items.size()) {
+            throw new IllegalArgumentException("Expected one name per maintenance item");
+        }
+        String[] allNames = new String[items.size() + 1];
+        MaintenanceCosts[] allItems = new MaintenanceCosts[items.size() + 1];
+        allNames[0] = OIL_CHANGE;
+        allItems[0] = copy(oil);
+        for (int i = 0; i < items.size(); i++) {
+            allNames[i + 1] = names.get(i);
+            allItems[i + 1] = copy(items.get(i));
+        }
+        return new MaintenanceSchedule(allNames, allItems);
+    }
+
+    private static MaintenanceCosts copy(MaintenanceCosts item) {
+        return new MaintenanceCosts(item.getOilChangeCost(), item.getMilesPerOilChange());
+    }
+
+    public int size() { return _names.length; }
+    public String name(int item) { return _names[item]; }
+    public double cost(int item) { return _items[item].getOilChangeCost(); }
+    public double intervalMiles(int item) { return _items[item].getMilesPerOilChange(); }
+
+    /** Cost of the item spread evenly over its interval; 0.0 when the interval is not positive. */
+    public double costPerMile(int item) {
+        return _items[item].oilChangeCostPerMile();
+    }
+
+    public double costPerMile() {
+        double total = 0.0;
+        for (MaintenanceCosts item : _items) {
+            total += item.oilChangeCostPerMile();
+        }
+        return total;
+    }
+}
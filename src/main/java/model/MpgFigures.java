@@ -0,0 +1,65 @@
+package model;
+
+/**
+ * City, highway and combined MPG for one vehicle, as reported by a single upstream
+ * lookup. A figure of 0.0 means the source had no value for it; the getters fall
+ * back to the nearest figure that is known, so a city-only source still blends.
+ */
+public final class MpgFigures {
+    public static final MpgFigures NONE = new MpgFigures(0.0, 0.0, 0.0);
+
+    private final double _city;
+    private final double _highway;
+    private final double _combined;
+
+    public MpgFigures(double city, double highway, double combined) {
+        this._city = city;
+        this._highway = highway;
+        this._combined = combined;
+    }
+
+    // For sources that only know one figure
+    public static MpgFigures cityOnly(double cityMpg) {
+        return new MpgFigures(cityMpg, 0.0, 0.0);
+    }
+
+    /** City MPG, falling back to combined. */
+    public double getCityMpg() {
+        return _city > 0.0 ? _city : _combined;
+    }
+
+    /** Highway MPG, falling back to city (and so to combined). */
+    public double getHighwayMpg() {
+        if (_highway > 0.0) return _highway;
+        return getCityMpg();
+    }
+
+    /** Combined MPG, falling back to an even city/highway blend. */
+    public double getCombinedMpg() {
+        return _combined > 0.0 ? _combined : blend(0.5);
+    }
+
+    // Raw figures as reported, 0.0 when unknown; these are what gets stored
+    public double rawHighwayMpg() { return _highway; }
+    public double rawCombinedMpg() { return _combined; }
+
+    public boolean isEmpty() {
+        return getCityMpg() == 0.0 && _highway == 0.0;
+    }
+
+    /**
+     * MPG for a mix of driving where cityShare of the miles are city miles (clamped
+     * to 0..1). Fuel use adds up per mile, so this is the weighted harmonic mean of
+     * the two figures rather than their average.
+     * @return blended MPG, or 0.0 if neither figure is known
+     */
+    public double blend(double cityShare) {
+        double share = Math.max(0.0, Math.min(1.0, cityShare));
+        double city = getCityMpg();
+        double highway = getHighwayMpg();
+        if (city <= 0.0 || highway <= 0.0 || city == highway) {
+            return Math.max(city, highway);
+        }
+        return 1.0 / (share / city + (1.0 - share) / highway);
+    }
+}
@@ -0,0 +1,53 @@
+package model;
+
+/**
+ * Weekly prices for one region and fuel type, oldest first, with a trailing moving
+ * average per week and the change across the returned range.
+ */
+public class PriceHistoryResponse {
+    private final String region;
+    private final String fuelType;
+    private final int window;
+    private final String[] periods;
+    private final double[] prices;
+    private final double[] movingAverages;
+
+    public PriceHistoryResponse(String region, String fuelType, int window, String[] periods,
+                                double[] prices, double[] movingAverages) {
+        this.region = region;
+        this.fuelType = fuelType;
+        this.window = window;
+        this.periods = periods;
+        this.prices = prices;
+        this.movingAverages = movingAverages;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getFuelType() {
+        return fuelType;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public String[] getPeriods() {
+        return periods;
+    }
+
+    public double[] getPrices() {
+        return prices;
+    }
+
+    public double[] getMovingAverages() {
+        return movingAverages;
+    }
+
+    // Latest price minus the first price in range, in $/gallon
+    public double getChange() {
+        return prices.length == 0 ? 0.0 : prices[prices.length - 1] - prices[0];
+    }
+}
@@ -1,48 +1,104 @@
 package model;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * Enum of U.S. regions and their EIA DuoArea codes.
  * Supports states, cities, PADD regions, and national average.
+ * Each region names the next wider one EIA publishes, so a missing series can fall
+ * back metro -> state -> PADD sub-region -> PADD -> national.
+ * States and metros carry their two-letter state abbreviation; metros also carry
+ * the coordinates of their center, for resolving a location to the nearest one.
  */
 public enum Region
 {
     // National
-    US_NATIONAL("NUS", "U.S."),
+    US_NATIONAL("NUS", "U.S.", null),
 
     // PADD Regions
-    PADD_1("R10", "PADD 1 (East Coast)"),
-    PADD_1A("R1X", "PADD 1A (New England)"),
-    PADD_2("R20", "PADD 2 (Midwest)"),
-    PADD_3("R30", "PADD 3 (Gulf Coast)"),
-    PADD_4("R40", "PADD 4 (Rocky Mountain)"),
-    PADD_5("R50", "PADD 5 (West Coast)"),
+    PADD_1("R10", "PADD 1 (East Coast)", US_NATIONAL),
+    PADD_1A("R1X", "PADD 1A (New England)", PADD_1),
+    PADD_1B("R1Y", "PADD 1B (Central Atlantic)", PADD_1),
+    PADD_1C("R1Z", "PADD 1C (Lower Atlantic)", PADD_1),
+    PADD_2("R20", "PADD 2 (Midwest)", US_NATIONAL),
+    PADD_3("R30", "PADD 3 (Gulf Coast)", US_NATIONAL),
+    PADD_4("R40", "PADD 4 (Rocky Mountain)", US_NATIONAL),
+    PADD_5("R50", "PADD 5 (West Coast)", US_NATIONAL),
+    PADD_5_EXCEPT_CA("R5XCA", "PADD 5 except California", PADD_5),
 
     // All States supported by EIA
-    NEW_YORK("SNY", "New York"),
-    TEXAS("STX", "Texas"),
-    CALIFORNIA("SCA", "California"),
-    FLORIDA("SFL", "Florida"),
-    COLORADO("SCO", "Colorado"),
-    WASHINGTON("SWA", "Washington"),
-    OHIO("SOH", "Ohio"),
-    MINNESOTA("SMN", "Minnesota"),
+    NEW_YORK("SNY", "New York", PADD_1B, "NY"),
+    TEXAS("STX", "Texas", PADD_3, "TX"),
+    CALIFORNIA("SCA", "California", PADD_5, "CA"),
+    FLORIDA("SFL", "Florida", PADD_1C, "FL"),
+    COLORADO("SCO", "Colorado", PADD_4, "CO"),
+    WASHINGTON("SWA", "Washington", PADD_5_EXCEPT_CA, "WA"),
+    OHIO("SOH", "Ohio", PADD_2, "OH"),
+    MINNESOTA("SMN", "Minnesota", PADD_2, "MN"),
+    MASSACHUSETTS("SMA", "Massachusetts", PADD_1A, "MA"),
 
     // All EIA Metro Areas
-    HOUSTON("Y44HO", "Houston, TX"),
-    LOS_ANGELES("Y05LA", "Los Angeles, CA"),
-    NEW_YORK_METRO("Y35NY", "New York Metro"),
-    CHICAGO("YORD", "Chicago, IL"),
-    DENVER("YDEN", "Denver, CO"),
-    BOSTON("YBOS", "Boston, MA"),
-    CLEVELAND("YCLE", "Cleveland, OH");
+    HOUSTON("Y44HO", "Houston, TX", TEXAS, "TX", 29.76, -95.37),
+    LOS_ANGELES("Y05LA", "Los Angeles, CA", CALIFORNIA, "CA", 34.05, -118.24),
+    SAN_FRANCISCO("Y05SF", "San Francisco, CA", CALIFORNIA, "CA", 37.77, -122.42),
+    NEW_YORK_METRO("Y35NY", "New York Metro", NEW_YORK, "NY", 40.71, -74.01),
+    CHICAGO("YORD", "Chicago, IL", PADD_2, "IL", 41.88, -87.63),
+    DENVER("YDEN", "Denver, CO", COLORADO, "CO", 39.74, -104.99),
+    BOSTON("YBOS", "Boston, MA", MASSACHUSETTS, "MA", 42.36, -71.06),
+    CLEVELAND("YCLE", "Cleveland, OH", OHIO, "OH", 41.50, -81.69),
+    MIAMI("YMIA", "Miami, FL", FLORIDA, "FL", 25.76, -80.19),
+    SEATTLE("Y48SE", "Seattle, WA", WASHINGTON, "WA", 47.61, -122.33);
+
+    // Built once; values() clones its array on every call
+    private static final Map<String, Region> BY_CODE = new HashMap<>();
+    private static final Map<Region, List<Region>> FALLBACKS = new EnumMap<>(Region.class);
+    private static final List<Region> NATIONAL_ONLY = List.of(US_NATIONAL);
+
+    static
+    {
+        for (Region region : values())
+        {
+            BY_CODE.put(region.duoAreaCode, region);
+
+            List<Region> chain = new ArrayList<>();
+            for (Region ancestor = region.parent; ancestor != null; ancestor = ancestor.parent)
+            {
+                chain.add(ancestor);
+            }
+            FALLBACKS.put(region, List.copyOf(chain));
+        }
+    }
 
     private final String duoAreaCode;
     private final String displayName;
+    private final Region parent;
+    private final String state;
+    private final double latitude;
+    private final double longitude;
 
-    Region(String duoAreaCode, String displayName)
+    Region(String duoAreaCode, String displayName, Region parent)
+    {
+        this(duoAreaCode, displayName, parent, null);
+    }
+
+    Region(String duoAreaCode, String displayName, Region parent, String state)
+    {
+        this(duoAreaCode, displayName, parent, state, Double.NaN, Double.NaN);
+    }
+
+    Region(String duoAreaCode, String displayName, Region parent, String state, double latitude, double longitude)
     {
         this.duoAreaCode = duoAreaCode;
         this.displayName = displayName;
+        this.parent = parent;
+        this.state = state;
+        this.latitude = latitude;
+        this.longitude = longitude;
     }
 
     public String getDuoAreaCode()
@@ -55,18 +111,67 @@ public enum Region
         return displayName;
     }
 
+    /** The next wider region EIA publishes (metro, state, PADD sub-region, PADD, national); null for national. */
+    public Region getParent()
+    {
+        return parent;
+    }
+
+    /** Two-letter state abbreviation for state and metro regions, otherwise null. */
+    public String getState()
+    {
+        return state;
+    }
+
+    public boolean isMetro()
+    {
+        return !Double.isNaN(latitude);
+    }
+
+    public boolean isState()
+    {
+        return state != null && !isMetro();
+    }
+
+    public double getLatitude()
+    {
+        return latitude;
+    }
+
+    public double getLongitude()
+    {
+        return longitude;
+    }
+
     /**
      * Lookup Region by duoAreaCode.
      */
     public static Region fromCode(String code)
     {
-        for (Region region : Region.values())
+        Region region = find(code);
+        return region != null ? region : US_NATIONAL; // fallback to national
+    }
+
+    /**
+     * Wider regions to price from when the code's own series is missing, nearest first
+     * and ending with the national average. A code this enum does not know falls back
+     * straight to national.
+     */
+    public static List<Region> fallbacks(String code)
+    {
+        Region region = find(code);
+        return region != null ? FALLBACKS.get(region) : NATIONAL_ONLY;
+    }
+
+    /**
+     * Region with the given duoAreaCode, ignoring case, or null if there is none.
+     */
+    public static Region find(String code)
+    {
+        if (code == null)
         {
-            if (region.duoAreaCode.equalsIgnoreCase(code))
-            {
-                return region;
-            }
+            return null;
         }
-        return US_NATIONAL; // fallback to national
+        return BY_CODE.get(code.trim().toUpperCase(Locale.ROOT));
     }
 }
@@ -0,0 +1,74 @@
+package model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Running cost of a vehicle: fuel plus scheduled maintenance.
+ * Per-mile figures spread each maintenance item evenly over its interval; projections
+ * instead charge each item when its interval is reached, giving the cumulative amount
+ * actually spent by a given mileage.
+ */
+public class TotalCostOfOwnership {
+    public static final String FUEL = "Fuel";
+
+    private final double _fuelCostPerMile;
+    private final MaintenanceSchedule _schedule;
+
+    public TotalCostOfOwnership(double fuelCostPerMile, MaintenanceSchedule schedule) {
+        this._fuelCostPerMile = fuelCostPerMile;
+        this._schedule = schedule;
+    }
+
+    public double getFuelCostPerMile() {
+        return _fuelCostPerMile;
+    }
+
+    public double getMaintenanceCostPerMile() {
+        return _schedule.costPerMile();
+    }
+
+    public double getTotalCostPerMile() {
+        return _fuelCostPerMile + _schedule.costPerMile();
+    }
+
+    /** Per-mile cost by line item, fuel first. */
+    public Map<String, Double> breakdown() {
+        Map<String, Double> breakdown = new LinkedHashMap<>();
+        breakdown.put(FUEL, _fuelCostPerMile);
+        for (int i = 0; i < _schedule.size(); i++) {
+            breakdown.merge(_schedule.name(i), _schedule.costPerMile(i), Double::sum);
+        }
+        return breakdown;
+    }
+
+    /**
+     * Cumulative cost at each mileage, written into {@code out} (which may be {@code mileages}
+     * itself). One pass over the points with no allocation, so a long curve costs only its arrays.
+     */
+    public void project(double[] mileages, double[] out) {
+        int items = _schedule.size();
+        for (int i = 0; i < mileages.length; i++) {
+            double miles = mileages[i];
+            double total = miles > 0 ? _fuelCostPerMile * miles : 0.0;
+            for (int k = 0; k < items; k++) {
+                double interval = _schedule.intervalMiles(k);
+                if (interval > 0 && miles > 0) {
+                    total += Math.floor(miles / interval) * _schedule.cost(k);
+                }
+            }
+            out[i] = total;
+        }
+    }
+
+    /**
+     * {@code points} evenly spaced mileages from horizon/points up to horizonMiles.
+     */
+    public static double[] mileages(double horizonMiles, int points) {
+        double[] mileages = new double[points];
+        for (int i = 0; i < points; i++) {
+            mileages[i] = horizonMiles * (i + 1) / points; // Not step * (i + 1): keeps interval boundaries exact
+        }
+        return mileages;
+    }
+}
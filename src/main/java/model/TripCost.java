@@ -0,0 +1,47 @@
+package model;
+
+/**
+ * Fuel cost of one logged trip, priced at its region's gas price for the trip's week.
+ */
+public class TripCost {
+    private final long line;
+    private final String date;
+    private final double miles;
+    private final String region;
+    private final double gasPrice;
+    private final double cost;
+
+    public TripCost(long line, String date, double miles, String region, double gasPrice, double cost) {
+        this.line = line;
+        this.date = date;
+        this.miles = miles;
+        this.region = region;
+        this.gasPrice = gasPrice;
+        this.cost = cost;
+    }
+
+    // 1-based line number in the uploaded file
+    public long getLine() {
+        return line;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public double getMiles() {
+        return miles;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public double getGasPrice() {
+        return gasPrice;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+}
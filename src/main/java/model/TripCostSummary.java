@@ -0,0 +1,46 @@
+package model;
+
+/**
+ * Totals over every priced trip in an upload. Lines that could not be parsed are counted as
+ * skipped; trips with no gas price for their region and week are counted as unpriced and
+ * are not in the trip, mile or cost totals.
+ */
+public class TripCostSummary {
+    private final long trips;
+    private final long skipped;
+    private final long unpriced;
+    private final double totalMiles;
+    private final double totalCost;
+
+    public TripCostSummary(long trips, long skipped, long unpriced, double totalMiles, double totalCost) {
+        this.trips = trips;
+        this.skipped = skipped;
+        this.unpriced = unpriced;
+        this.totalMiles = totalMiles;
+        this.totalCost = totalCost;
+    }
+
+    public long getTrips() {
+        return trips;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getUnpriced() {
+        return unpriced;
+    }
+
+    public double getTotalMiles() {
+        return totalMiles;
+    }
+
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    public double getCostPerMile() {
+        return totalMiles > 0 ? totalCost / totalMiles : 0.0;
+    }
+}
@@ -0,0 +1,52 @@
+package model;
+
+/**
+ * One saved vehicle with its cost per mile at a single gas price.
+ */
+public class VehicleCost {
+    private final Long vehicleId;
+    private final String make;
+    private final String model;
+    private final String year;
+    private final String subModel;
+    private final double cityMpg;
+    private final double costPerMile;
+
+    public VehicleCost(Long vehicleId, String make, String model, String year, String subModel, double cityMpg, double costPerMile) {
+        this.vehicleId = vehicleId;
+        this.make = make;
+        this.model = model;
+        this.year = year;
+        this.subModel = subModel;
+        this.cityMpg = cityMpg;
+        this.costPerMile = costPerMile;
+    }
+
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+
+    public String getMake() {
+        return make;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public String getSubModel() {
+        return subModel;
+    }
+
+    public double getCityMpg() {
+        return cityMpg;
+    }
+
+    public double getCostPerMile() {
+        return costPerMile;
+    }
+}
@@ -10,6 +10,9 @@ public class VehicleRequest {
     private Long _vehicleId;
     private Double _manualMpg; // Optional field for when the caller already has the MPG and just wants to calculate cost-per-mile
     private Double _manualGasPrice; // Optional field for when the caller already has the gas price and just wants to calculate cost-per-mile
+    private Integer _horizonMiles; // Optional: also project cumulative cost of ownership out to this many miles
+    private Double _cityShare; // Optional: fraction of miles driven in the city (0..1), blending city and highway MPG; city-only when absent
+    private Integer _projectionPoints; // Optional: number of points on the horizonMiles projection curve
 
     public VehicleRequest() {}
 
@@ -97,4 +100,28 @@ public class VehicleRequest {
         this._manualGasPrice = manualGasPrice;
     }
 
+
+    public Integer getHorizonMiles() {
+        return _horizonMiles;
+    }
+
+    public void setHorizonMiles(Integer horizonMiles) {
+        this._horizonMiles = horizonMiles;
+    }
+
+    public Double getCityShare() {
+        return _cityShare;
+    }
+
+    public void setCityShare(Double cityShare) {
+        this._cityShare = cityShare;
+    }
+
+    public Integer getProjectionPoints() {
+        return _projectionPoints;
+    }
+
+    public void setProjectionPoints(Integer projectionPoints) {
+        this._projectionPoints = projectionPoints;
+    }
 }
@@ -0,0 +1,15 @@
+package model;
+
+/**
+ * Read-only view of a saved vehicle for listings; selected column by column, so no
+ * managed VehicleEntity (or its owner) is loaded.
+ */
+public interface VehicleSummary
+{
+    public Long getVehicleId();
+    public String getMake();
+    public String getModel();
+    public String getYear();
+    public String getSubModel();
+    public double getCityMpg();
+}
@@ -0,0 +1,21 @@
+package repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import entity.GasPriceHistoryEntity;
+import entity.GasPriceHistoryKey;
+
+/**
+ * Data access object for the weekly gas price history.
+ */
+
+@Repository
+public interface GasPriceHistoryRepository extends JpaRepository<GasPriceHistoryEntity, GasPriceHistoryKey> {
+    @Query("select h from GasPriceHistoryEntity h where h.key.duoarea = :duoarea and h.key.product = :product order by h.key.period")
+    List<GasPriceHistoryEntity> findSeries(@Param("duoarea") String duoarea, @Param("product") String product);
+}
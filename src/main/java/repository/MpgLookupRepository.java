@@ -0,0 +1,14 @@
+package repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import entity.MpgLookupEntity;
+
+/**
+ * Data access object for the persisted MPG lookup cache.
+ */
+
+@Repository
+public interface MpgLookupRepository extends JpaRepository<MpgLookupEntity, String> {
+}
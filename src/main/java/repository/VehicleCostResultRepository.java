@@ -0,0 +1,33 @@
+package repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import entity.VehicleCostResultEntity;
+
+/**
+ * Data access object for persisted cost-per-mile results.
+ * Reads only return results that are still current: calculated for the given EIA week
+ * and from the city MPG the vehicle has now.
+ */
+
+@Repository
+public interface VehicleCostResultRepository extends JpaRepository<VehicleCostResultEntity, String> {
+
+    @Query("select r from VehicleCostResultEntity r, VehicleEntity v where v.vehicleId = r.vehicleId "
+         + "and r.resultKey = :resultKey and r.ownerId = :ownerId and r.pricePeriod = :period and r.cityMpg = v.cityMpg")
+    Optional<VehicleCostResultEntity> findCurrent(@Param("resultKey") String resultKey, @Param("ownerId") Long ownerId,
+                                                  @Param("period") LocalDate period);
+
+    @Query("select r from VehicleCostResultEntity r, VehicleEntity v where v.vehicleId = r.vehicleId "
+         + "and r.ownerId = :ownerId and r.region = :region and r.fuelType = :fuelType "
+         + "and r.pricePeriod = :period and r.cityMpg = v.cityMpg order by r.vehicleId")
+    List<VehicleCostResultEntity> findCurrentForOwner(@Param("ownerId") Long ownerId, @Param("region") String region,
+                                                      @Param("fuelType") String fuelType, @Param("period") LocalDate period);
+}
@@ -3,11 +3,16 @@ package repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import entity.UserEntity;
 import entity.VehicleEntity;
+import model.VehicleSummary;
 
 /**
  * Data access object for Vehicle operations.
@@ -18,4 +23,14 @@ import entity.VehicleEntity;
 public interface VehicleRepository extends JpaRepository<VehicleEntity, String>{
     List<VehicleEntity> findAllByOwnerId(UserEntity owner);
     Optional<VehicleEntity> findByVehicleIdAndOwnerId(Long id, UserEntity owner);
+
+    // One query against the vehicles table only: the owner is matched by its foreign key, never joined or loaded
+    @Query(value = "select v.vehicleId as vehicleId, v.make as make, v.model as model, v.year as year, "
+                 + "v.subModel as subModel, v.cityMpg as cityMpg from VehicleEntity v where v.ownerId.userId = :userId",
+           countQuery = "select count(v) from VehicleEntity v where v.ownerId.userId = :userId")
+    Page<VehicleSummary> findSummariesByOwner(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("select v.vehicleId as vehicleId, v.make as make, v.model as model, v.year as year, "
+         + "v.subModel as subModel, v.cityMpg as cityMpg from VehicleEntity v where v.ownerId.userId = :userId order by v.vehicleId")
+    List<VehicleSummary> findAllSummariesByOwner(@Param("userId") Long userId);
 }
@@ -1,6 +1,22 @@
 package service.api;
 
+import java.util.concurrent.CompletableFuture;
+
+import model.MpgFigures;
+
 public interface CityMpgService {
     double getMpg(String make, String model, String year) throws Exception;
     double getMpg(String make, String model, String year, String submodel) throws Exception;
+
+    // Non-blocking variant; blocking work belongs on the blockingExecutor, never the common fork-join pool
+    CompletableFuture<Double> getMpgAsync(String make, String model, String year, String submodel);
+
+    // City, highway and combined MPG from one lookup; sources that only know city MPG report just that
+    default MpgFigures getMpgFigures(String make, String model, String year, String submodel) throws Exception {
+        return MpgFigures.cityOnly(getMpg(make, model, year, submodel));
+    }
+
+    default CompletableFuture<MpgFigures> getMpgFiguresAsync(String make, String model, String year, String submodel) {
+        return getMpgAsync(make, model, year, submodel).thenApply(MpgFigures::cityOnly);
+    }
 }
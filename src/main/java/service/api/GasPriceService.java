@@ -1,5 +1,21 @@
 package service.api;
 
+import java.util.concurrent.CompletableFuture;
+
+import model.GasPriceQuote;
+
 public interface GasPriceService {
     double getPrice(String region, String fuelType) throws Exception;
+
+    // Implementations that know the EIA publication week should override this
+    default GasPriceQuote getQuote(String region, String fuelType) throws Exception {
+        return new GasPriceQuote(getPrice(region, fuelType), null);
+    }
+
+    // Non-blocking variant; blocking work belongs on the blockingExecutor, never the common fork-join pool
+    CompletableFuture<GasPriceQuote> getQuoteAsync(String region, String fuelType);
+
+    default CompletableFuture<Double> getPriceAsync(String region, String fuelType) {
+        return getQuoteAsync(region, fuelType).thenApply(GasPriceQuote::getPrice);
+    }
 }
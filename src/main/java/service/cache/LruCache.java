@@ -0,0 +1,55 @@
+package service.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Small thread-safe, size-bounded LRU map.
+ * Once maxEntries is reached the least recently accessed entry is evicted.
+ */
+public class LruCache<K, V> {
+    private final int _maxEntries;
+    private final LinkedHashMap<K, V> _entries;
+
+    public LruCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this._maxEntries = maxEntries;
+        this._entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > _maxEntries;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        return _entries.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        _entries.put(key, value);
+    }
+
+    public synchronized V remove(K key) {
+        return _entries.remove(key);
+    }
+
+    public synchronized void removeIf(Predicate<? super K> key) {
+        _entries.keySet().removeIf(key);
+    }
+
+    public synchronized int size() {
+        return _entries.size();
+    }
+
+    public synchronized void clear() {
+        _entries.clear();
+    }
+
+    public int getMaxEntries() {
+        return _maxEntries;
+    }
+}
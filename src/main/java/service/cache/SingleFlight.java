@@ -0,0 +1,98 @@
+package service.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one execution.
+ * The first caller runs the loader; everyone who arrives while it is still
+ * running waits on the same in-flight future and gets the same result (or exception).
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> _inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong _executions = new AtomicLong();
+    private final AtomicLong _collapsed = new AtomicLong();
+
+    public V execute(K key, Callable<V> loader) throws Exception {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = _inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            _collapsed.incrementAndGet();
+            return await(existing);
+        }
+
+        _executions.incrementAndGet();
+        try {
+            V value = loader.call();
+            mine.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            _inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Non-blocking variant: the loader returns a future and callers get a future back.
+     * Shares the in-flight map with {@link #execute}, so sync and async callers coalesce together.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = _inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            _collapsed.incrementAndGet();
+            return existing.copy();
+        }
+
+        _executions.incrementAndGet();
+        CompletableFuture<V> loading;
+        try {
+            loading = loader.get();
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((value, error) -> {
+            if (error != null) {
+                mine.completeExceptionally(error);
+            } else {
+                mine.complete(value);
+            }
+            _inFlight.remove(key, mine);
+        });
+        return mine.copy();
+    }
+
+    /** Number of loader executions that actually went upstream. */
+    public long getExecutionCount() {
+        return _executions.get();
+    }
+
+    /** Number of callers that piggy-backed on an execution already in flight. */
+    public long getCollapsedCount() {
+        return _collapsed.get();
+    }
+
+    public int getInFlightCount() {
+        return _inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) throw exception;
+            if (cause instanceof Error error) throw error;
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package service.http;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Count-based circuit breaker for one upstream.
+ * Tracks the outcome of the last windowSize calls; once at least minimumCalls have
+ * been seen and the failure rate reaches the threshold, the circuit opens and calls
+ * are refused for openDuration. After that a single probe call is let through
+ * (half-open): success closes the circuit, failure opens it again.
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final boolean[] _window;
+    private final int _minimumCalls;
+    private final int _failureRateThreshold;
+    private final Duration _openDuration;
+    private final Clock _clock;
+
+    private State _state = State.CLOSED;
+    private int _next;
+    private int _recorded;
+    private int _failures;
+    private Instant _openedAt;
+    private boolean _probeInFlight;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, Duration openDuration, Clock clock) {
+        this._window = new boolean[windowSize];
+        this._minimumCalls = Math.min(minimumCalls, windowSize);
+        this._failureRateThreshold = failureRateThreshold;
+        this._openDuration = openDuration;
+        this._clock = clock;
+    }
+
+    /**
+     * @return true if the call may go ahead; the caller must then report
+     *         {@link #onSuccess()} or {@link #onFailure()}
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (_state == State.OPEN) {
+            if (_clock.instant().isBefore(_openedAt.plus(_openDuration))) {
+                return false;
+            }
+            _state = State.HALF_OPEN;
+            _probeInFlight = false;
+        }
+        if (_state == State.HALF_OPEN) {
+            if (_probeInFlight) {
+                return false;
+            }
+            _probeInFlight = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (_state == State.HALF_OPEN) {
+            close();
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (_state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (_state == State.CLOSED && _recorded >= _minimumCalls
+                && _failures * 100 >= _failureRateThreshold * _recorded) {
+            open();
+        }
+    }
+
+    /** Gives back a permission for a call that never reached the upstream. */
+    public synchronized void releasePermission() {
+        if (_state == State.HALF_OPEN) {
+            _probeInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return _state;
+    }
+
+    private void record(boolean failed) {
+        if (_recorded == _window.length) {
+            if (_window[_next]) _failures--;
+        } else {
+            _recorded++;
+        }
+        _window[_next] = failed;
+        if (failed) _failures++;
+        _next = (_next + 1) % _window.length;
+    }
+
+    private void open() {
+        _state = State.OPEN;
+        _openedAt = _clock.instant();
+        _probeInFlight = false;
+    }
+
+    private void close() {
+        _state = State.CLOSED;
+        _probeInFlight = false;
+        _next = 0;
+        _recorded = 0;
+        _failures = 0;
+    }
+}
@@ -0,0 +1,264 @@
+package service.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import config.HttpClientProperties;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Shared entry point for calls to EIA and carapi.
+ * Bodies are read in full before a call completes, and the configured request timeout
+ * bounds the whole exchange, body included. Each host is bulkheaded:
+ * at most maxConcurrentPerHost requests in flight, extra async calls queue (up to
+ * maxQueuedPerHost) without blocking a thread, extra sync calls wait up to
+ * maxWaitForSlot. Each upstream also has a {@link CircuitBreaker}; while it is open,
+ * or the bulkhead is full, calls fail fast with {@link UpstreamUnavailableException}
+ * so a slow upstream cannot tie up our request threads.
+ * Every call is timed under its upstream name (see {@link UpstreamMetrics}).
+ */
+@Component
+public class UpstreamHttpClient {
+    private final HttpClient _httpClient;
+    private final HttpClientProperties _properties;
+    private final Duration _requestTimeout;
+    private final UpstreamMetrics _metrics;
+    private final Clock _clock;
+    private final ConcurrentHashMap<String, HostGate> _gates = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CircuitBreaker> _breakers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UpstreamHttpClient(HttpClient httpClient, HttpClientProperties properties, UpstreamMetrics metrics) {
+        this(httpClient, properties, metrics, Clock.systemUTC());
+    }
+
+    public UpstreamHttpClient(HttpClient httpClient, HttpClientProperties properties, UpstreamMetrics metrics, Clock clock) {
+        this._httpClient = httpClient;
+        this._properties = properties;
+        this._requestTimeout = properties.getRequestTimeout();
+        this._metrics = metrics;
+        this._clock = clock;
+    }
+
+    public HttpResponse<byte[]> send(String upstream, HttpRequest.Builder builder) throws IOException, InterruptedException {
+        HttpRequest request = builder.timeout(_requestTimeout).build();
+        CircuitBreaker breaker = breakerFor(upstream);
+        Timer.Sample sample = _metrics.start();
+        if (!breaker.tryAcquirePermission()) {
+            _metrics.recordCircuitOpen(sample, upstream);
+            throw new UpstreamUnavailableException("Circuit open for " + upstream);
+        }
+
+        HostGate gate = gateFor(request.uri());
+        boolean slot;
+        try {
+            slot = gate.permits.tryAcquire(_properties.getMaxWaitForSlot().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            breaker.releasePermission();
+            throw e;
+        }
+        if (!slot) {
+            breaker.releasePermission(); // Refused by our own bulkhead; says nothing about the upstream
+            _metrics.recordRejected(sample, upstream);
+            throw new UpstreamUnavailableException("No connection slot free for " + request.uri().getHost());
+        }
+        boolean recorded = false;
+        try {
+            HttpResponse<byte[]> response = await(_httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()));
+            record(breaker, response.statusCode());
+            recorded = true;
+            _metrics.recordResponse(sample, upstream, response.statusCode());
+            return response;
+        } catch (IOException e) {
+            breaker.onFailure();
+            recorded = true;
+            _metrics.recordFailure(sample, upstream, e);
+            throw e;
+        } finally {
+            // Interrupted or failed before an answer: hand the permission back, or a half-open probe would hold it forever
+            if (!recorded) {
+                breaker.releasePermission();
+            }
+            gate.release();
+        }
+    }
+
+    public CompletableFuture<HttpResponse<byte[]>> sendAsync(String upstream, HttpRequest.Builder builder) {
+        HttpRequest request = builder.timeout(_requestTimeout).build();
+        CircuitBreaker breaker = breakerFor(upstream);
+        Timer.Sample sample = _metrics.start();
+        if (!breaker.tryAcquirePermission()) {
+            _metrics.recordCircuitOpen(sample, upstream);
+            return CompletableFuture.failedFuture(new UpstreamUnavailableException("Circuit open for " + upstream));
+        }
+
+        HostGate gate = gateFor(request.uri());
+        if (!gate.reserve(_properties.getMaxQueuedPerHost())) {
+            breaker.releasePermission();
+            _metrics.recordRejected(sample, upstream);
+            return CompletableFuture.failedFuture(new UpstreamUnavailableException("Too many queued requests for " + request.uri().getHost()));
+        }
+        return gate.submit(() -> withDeadline(_httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())))
+            .whenComplete((response, error) -> {
+                if (error != null) {
+                    breaker.onFailure();
+                    _metrics.recordFailure(sample, upstream, error);
+                } else {
+                    record(breaker, response.statusCode());
+                    _metrics.recordResponse(sample, upstream, response.statusCode());
+                }
+            });
+    }
+
+    /** Requests currently waiting for a slot to the given host (async callers only). */
+    public int getQueuedCount(String host) {
+        HostGate gate = _gates.get(host);
+        return gate == null ? 0 : gate.queued.get();
+    }
+
+    public CircuitBreaker.State getCircuitState(String upstream) {
+        CircuitBreaker breaker = _breakers.get(upstream);
+        return breaker == null ? CircuitBreaker.State.CLOSED : breaker.getState();
+    }
+
+    private CircuitBreaker breakerFor(String upstream) {
+        return _breakers.computeIfAbsent(upstream, name -> {
+            CircuitBreaker breaker = new CircuitBreaker(_properties.getBreakerWindowSize(), _properties.getBreakerMinimumCalls(),
+                _properties.getBreakerFailureRateThreshold(), _properties.getBreakerOpenDuration(), _clock);
+            _metrics.registerCircuitBreaker(name, breaker);
+            return breaker;
+        });
+    }
+
+    // HttpRequest.timeout stops counting once the headers arrive; this deadline also covers reading the body
+    private <T> HttpResponse<T> await(CompletableFuture<HttpResponse<T>> exchange) throws IOException, InterruptedException {
+        try {
+            return exchange.get(_requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            exchange.cancel(true);
+            throw timedOut();
+        } catch (InterruptedException e) {
+            exchange.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new IOException(cause);
+        }
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> withDeadline(CompletableFuture<HttpResponse<T>> exchange) {
+        CompletableFuture<HttpResponse<T>> bounded = exchange.copy().orTimeout(_requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        return bounded.exceptionallyCompose(error -> {
+            if (error instanceof TimeoutException) {
+                exchange.cancel(true); // Abort the transfer so the connection is not left reading
+                return CompletableFuture.failedFuture(timedOut());
+            }
+            // copy() wraps the exchange's own failure; pass on the IOException itself
+            return CompletableFuture.failedFuture(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+        });
+    }
+
+    private HttpTimeoutException timedOut() {
+        return new HttpTimeoutException("No complete response within " + _requestTimeout);
+    }
+
+    // 5xx and 429 mean the upstream is struggling; any other status is an answer
+    private static void record(CircuitBreaker breaker, int status) {
+        if (status >= 500 || status == 429) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+    }
+
+    private HostGate gateFor(URI uri) {
+        String host = uri.getHost() == null ? "" : uri.getHost();
+        return _gates.computeIfAbsent(host, h -> new HostGate(_properties.getMaxConcurrentPerHost()));
+    }
+
+    private static final class HostGate {
+        private final Semaphore permits;
+        private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private HostGate(int maxConcurrent) {
+            this.permits = new Semaphore(maxConcurrent);
+        }
+
+        // Claims a queue position; every successful reserve is followed by exactly one submit
+        private boolean reserve(int maxQueued) {
+            while (true) {
+                int current = queued.get();
+                if (current >= maxQueued) {
+                    return false;
+                }
+                if (queued.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            waiting.add(() -> {
+                queued.decrementAndGet();
+                CompletableFuture<T> started;
+                try {
+                    started = call.get();
+                } catch (RuntimeException e) {
+                    started = CompletableFuture.failedFuture(e);
+                }
+                started.whenComplete((value, error) -> {
+                    release();
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            });
+            drain();
+            return result;
+        }
+
+        private void release() {
+            permits.release();
+            drain();
+        }
+
+        // Start queued calls while permits are available; re-checked after every enqueue and release
+        private void drain() {
+            while (!waiting.isEmpty() && permits.tryAcquire()) {
+                Runnable next = waiting.poll();
+                if (next == null) {
+                    permits.release();
+                    continue;
+                }
+                next.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package service.http;
+
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters for calls to EIA and carapi.
+ * upstream.requests times each HTTP call, from queueing for a connection slot to the
+ * response headers, tagged by upstream, status and outcome; upstream.results counts
+ * parsed answers by whether they came back as 0.0, which the services use to mean "no data";
+ * upstream.circuit.state reports each circuit breaker (0 closed, 1 open, 2 half-open).
+ */
+@Component
+public class UpstreamMetrics {
+    private final MeterRegistry _registry;
+
+    public UpstreamMetrics(MeterRegistry registry) {
+        this._registry = registry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(_registry);
+    }
+
+    public void recordResponse(Timer.Sample sample, String upstream, int status) {
+        sample.stop(timer(upstream, String.valueOf(status), outcome(status)));
+    }
+
+    public void recordFailure(Timer.Sample sample, String upstream, Throwable error) {
+        sample.stop(timer(upstream, "NONE", isTimeout(error) ? "TIMEOUT" : "IO_ERROR"));
+    }
+
+    /** A call that never went out because the host's bulkhead was full. */
+    public void recordRejected(Timer.Sample sample, String upstream) {
+        sample.stop(timer(upstream, "NONE", "REJECTED"));
+    }
+
+    /** A call refused because the upstream's circuit breaker is open. */
+    public void recordCircuitOpen(Timer.Sample sample, String upstream) {
+        sample.stop(timer(upstream, "NONE", "CIRCUIT_OPEN"));
+    }
+
+    public void registerCircuitBreaker(String upstream, CircuitBreaker breaker) {
+        Gauge.builder("upstream.circuit.state", breaker, b -> b.getState().ordinal())
+            .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+            .tag("upstream", upstream)
+            .register(_registry);
+    }
+
+    public void recordResult(String upstream, double value) {
+        Counter.builder("upstream.results")
+            .description("Parsed upstream answers, by whether they were empty (0.0)")
+            .tags("upstream", upstream, "result", value > 0.0 ? "value" : "zero")
+            .register(_registry)
+            .increment();
+    }
+
+    private Timer timer(String upstream, String status, String outcome) {
+        return Timer.builder("upstream.requests")
+            .description("HTTP calls to EIA and carapi")
+            .tags("upstream", upstream, "status", status, "outcome", outcome)
+            .publishPercentileHistogram()
+            .register(_registry);
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) return "SERVER_ERROR";
+        if (status >= 400) return "CLIENT_ERROR";
+        return "SUCCESS";
+    }
+
+    private static boolean isTimeout(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof HttpTimeoutException;
+    }
+}
@@ -0,0 +1,13 @@
+package service.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown without calling the upstream when its circuit breaker is open or its
+ * bulkhead has no room, so callers can fall back instead of waiting.
+ */
+public class UpstreamUnavailableException extends IOException {
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
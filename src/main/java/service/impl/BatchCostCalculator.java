@@ -0,0 +1,311 @@
+package service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import model.CalculateResponse;
+import model.MaintenanceSchedule;
+import model.VehicleRequest;
+import service.api.CityMpgService;
+import service.api.GasPriceService;
+
+/**
+ * Guest-mode cost-per-mile for many vehicles at once.
+ * Identical (year, make, model, submodel) and (region, fuelType) keys are looked up
+ * once per batch, with at most maxParallelism upstream lookups in flight. Requests are
+ * processed in chunks so results can be streamed out, in input order, while later
+ * chunks are still resolving. No thread waits on a lookup: the batch is a chain of futures. Each response is built as a single calculation would
+ * build it: a failed lookup flags it degraded, and horizonMiles adds a projection.
+ * A vehicle the catalog does not know gets an entry carrying only an error, with the
+ * reason a single calculation would give in its 400; the rest of the batch is unaffected.
+ * A projectionPoints value out of range anywhere in the batch fails it with 400
+ * before any lookup starts.
+ */
+@Service
+public class BatchCostCalculator
+{
+    /** Receives each result in input order. */
+    @FunctionalInterface
+    public interface ResultSink
+    {
+        void accept(CalculateResponse response) throws IOException;
+    }
+
+    private final CityMpgService _mpgService;
+    private final GasPriceService _gasService;
+    private final int _maxParallelism;
+    private final int _chunkSize;
+    private final int _maxBatchSize;
+    private final MaintenanceSchedule _maintenance;
+    private final RegionResolver _regions;
+    // Null unless the EPA dataset is configured
+    private final VehicleCatalog _catalog;
+
+    public BatchCostCalculator(CityMpgService mpgService, GasPriceService gasService, MaintenanceSchedule maintenance,
+                               RegionResolver regions, ObjectProvider<VehicleCatalog> catalog,
+                               @Value("${batch.max-parallelism:16}") int maxParallelism,
+                               @Value("${batch.chunk-size:500}") int chunkSize,
+                               @Value("${batch.max-size:10000}") int maxBatchSize)
+    {
+        this._mpgService = mpgService;
+        this._gasService = gasService;
+        this._maintenance = maintenance;
+        this._regions = regions;
+        this._catalog = catalog.getIfAvailable();
+        this._maxParallelism = maxParallelism;
+        this._chunkSize = chunkSize;
+        this._maxBatchSize = maxBatchSize;
+    }
+
+    public int getMaxBatchSize()
+    {
+        return _maxBatchSize;
+    }
+
+    public CompletableFuture<List<CalculateResponse>> calculateAll(List<VehicleRequest> requests)
+    {
+        List<CalculateResponse> responses = new ArrayList<>(requests.size());
+        return calculateEach(requests, responses::add).thenApply(done -> responses);
+    }
+
+    /**
+     * Resolves the batch chunk by chunk, passing each response to the sink in input order.
+     * Nothing here waits: each chunk starts when the previous one has been handed to the sink.
+     * A sink that fails (e.g. the client went away) fails the returned future and stops later chunks.
+     *
+     * @throws ResponseStatusException 400 when any item's projectionPoints is out of range
+     */
+    public CompletableFuture<Void> calculateEach(List<VehicleRequest> requests, ResultSink sink)
+    {
+        requests.forEach(CostPerMileCalculator::projectionPoints);
+        Map<String, Double> prices = new HashMap<>();
+        Map<String, Double> mpgs = new HashMap<>();
+        Set<String> unknownVehicles = new HashSet<>();
+
+        CompletableFuture<Void> done = CompletableFuture.completedFuture(null);
+        for (int start = 0; start < requests.size(); start += _chunkSize)
+        {
+            List<VehicleRequest> chunk = requests.subList(start, Math.min(requests.size(), start + _chunkSize));
+            done = done
+                .thenCompose(previous -> resolve(chunk, prices, mpgs, unknownVehicles))
+                .thenRun(() -> emit(chunk, prices, mpgs, unknownVehicles, sink));
+        }
+        return done;
+    }
+
+    private void emit(List<VehicleRequest> chunk, Map<String, Double> prices, Map<String, Double> mpgs,
+                      Set<String> unknownVehicles, ResultSink sink)
+    {
+        for (VehicleRequest request : chunk)
+        {
+            CalculateResponse response;
+            if (request.getManualMpg() == null && unknownVehicles.contains(mpgKey(request)))
+            {
+                response = new CalculateResponse(0.0, 0.0, 0.0);
+                response.setError(VehicleCatalog.unknownVehicle(request.getYear(), request.getMake(), request.getModel()));
+            }
+            else
+            {
+                Double gasPrice = request.getManualGasPrice() != null ? request.getManualGasPrice() : prices.get(priceKey(request));
+                Double mpg = request.getManualMpg() != null ? request.getManualMpg() : mpgs.get(mpgKey(request));
+                response = CostPerMileCalculator.withProjection(CostPerMileCalculator.combine(gasPrice, mpg, _maintenance),
+                    request, _maintenance);
+            }
+            try
+            {
+                sink.accept(response);
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Look up every key in the chunk that an earlier chunk has not already resolved.
+     * A failed lookup resolves to null, which makes that vehicle's response degraded.
+     * The returned future completes once the results are in {@code prices} and {@code mpgs}.
+     */
+    private CompletableFuture<Void> resolve(List<VehicleRequest> chunk, Map<String, Double> prices, Map<String, Double> mpgs,
+                                            Set<String> unknownVehicles)
+    {
+        Map<String, VehicleRequest> missingPrices = new LinkedHashMap<>();
+        Map<String, VehicleRequest> missingMpgs = new LinkedHashMap<>();
+        for (VehicleRequest request : chunk)
+        {
+            if (request.getManualMpg() == null && isUnknown(request, unknownVehicles))
+            {
+                continue; // Reported as an error entry; neither EIA nor carapi is asked
+            }
+            if (request.getManualGasPrice() == null && !prices.containsKey(priceKey(request)))
+            {
+                missingPrices.putIfAbsent(priceKey(request), request);
+            }
+            if (request.getManualMpg() == null && !mpgs.containsKey(mpgKey(request)))
+            {
+                missingMpgs.putIfAbsent(mpgKey(request), request);
+            }
+        }
+
+        // Synchronized rather than concurrent maps, which cannot hold the null of a failed lookup
+        Map<String, Double> resolvedPrices = Collections.synchronizedMap(new HashMap<>());
+        Map<String, Double> resolvedMpgs = Collections.synchronizedMap(new HashMap<>());
+        List<Supplier<CompletableFuture<Void>>> lookups = new ArrayList<>();
+
+        missingPrices.forEach((key, request) -> lookups.add(() ->
+            record(() -> _gasService.getPriceAsync(_regions.resolveCode(request.getRegion()), request.getFuelType()),
+                resolvedPrices, key)));
+        missingMpgs.forEach((key, request) -> lookups.add(() ->
+            record(() -> lookupMpg(request), resolvedMpgs, key)));
+
+        return new Lookups(lookups, _maxParallelism).start().thenRun(() -> {
+            prices.putAll(resolvedPrices);
+            mpgs.putAll(resolvedMpgs);
+        });
+    }
+
+    private boolean isUnknown(VehicleRequest request, Set<String> unknownVehicles)
+    {
+        if (_catalog == null)
+        {
+            return false;
+        }
+        if (unknownVehicles.contains(mpgKey(request)))
+        {
+            return true;
+        }
+        if (_catalog.contains(request.getYear(), request.getMake(), request.getModel()))
+        {
+            return false;
+        }
+        unknownVehicles.add(mpgKey(request));
+        return true;
+    }
+
+    // Starts the lookup and stores its value, or null when it fails; the returned future never fails
+    private static CompletableFuture<Void> record(Supplier<CompletableFuture<Double>> lookup, Map<String, Double> resolved, String key)
+    {
+        CompletableFuture<Double> started;
+        try
+        {
+            started = lookup.get();
+        }
+        catch (RuntimeException e)
+        {
+            started = CompletableFuture.failedFuture(e);
+        }
+        return started.handle((value, error) -> {
+            resolved.put(key, error != null ? null : value);
+            return null;
+        });
+    }
+
+    /**
+     * Runs lookups with at most maxParallelism in flight, without parking a thread:
+     * each lane starts its next lookup from the completion of the previous one.
+     * Lookups that complete at once are run in a loop rather than recursively.
+     */
+    private static final class Lookups
+    {
+        private final List<Supplier<CompletableFuture<Void>>> _lookups;
+        private final int _lanes;
+        private final AtomicInteger _next = new AtomicInteger();
+        private final AtomicInteger _remaining;
+        private final CompletableFuture<Void> _done = new CompletableFuture<>();
+
+        Lookups(List<Supplier<CompletableFuture<Void>>> lookups, int maxParallelism)
+        {
+            this._lookups = lookups;
+            this._lanes = Math.max(1, Math.min(maxParallelism, lookups.size()));
+            this._remaining = new AtomicInteger(lookups.size());
+        }
+
+        CompletableFuture<Void> start()
+        {
+            if (_lookups.isEmpty())
+            {
+                _done.complete(null);
+                return _done;
+            }
+            for (int lane = 0; lane < _lanes; lane++)
+            {
+                runLane();
+            }
+            return _done;
+        }
+
+        private void runLane()
+        {
+            int index;
+            while ((index = _next.getAndIncrement()) < _lookups.size())
+            {
+                CompletableFuture<Void> lookup = _lookups.get(index).get();
+                if (!lookup.isDone())
+                {
+                    lookup.whenComplete((value, error) -> {
+                        finished();
+                        runLane();
+                    });
+                    return;
+                }
+                finished();
+            }
+        }
+
+        private void finished()
+        {
+            if (_remaining.decrementAndGet() == 0)
+            {
+                _done.complete(null);
+            }
+        }
+    }
+
+    // A driving mix blends the city and highway figures from the same single lookup
+    private CompletableFuture<Double> lookupMpg(VehicleRequest request)
+    {
+        if (request.getCityShare() == null)
+        {
+            return _mpgService.getMpgAsync(request.getMake(), request.getModel(), request.getYear(), request.getSubModel());
+        }
+        double cityShare = request.getCityShare();
+        return _mpgService.getMpgFiguresAsync(request.getMake(), request.getModel(), request.getYear(), request.getSubModel())
+            .thenApply(figures -> figures.blend(cityShare));
+    }
+
+    // Keyed by the resolved code, so "GA", a Georgia ZIP and "R1Z" share one lookup
+    private String priceKey(VehicleRequest request)
+    {
+        return normalize(_regions.resolveCode(request.getRegion())) + "|" + normalize(request.getFuelType());
+    }
+
+    private static String mpgKey(VehicleRequest request)
+    {
+        return normalize(request.getYear()) + "|" + normalize(request.getMake()) + "|"
+            + normalize(request.getModel()) + "|" + normalize(request.getSubModel())
+            + (request.getCityShare() == null ? "" : "|" + request.getCityShare());
+    }
+
+    private static String normalize(String value)
+    {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
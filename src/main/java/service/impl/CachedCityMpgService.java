@@ -0,0 +1,240 @@
+package service.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import entity.MpgLookupEntity;
+import model.MpgFigures;
+import repository.MpgLookupRepository;
+import service.api.CityMpgService;
+import service.cache.LruCache;
+import service.cache.SingleFlight;
+
+/**
+ * Two-tier cache in front of the carapi mileage lookup.
+ * EPA figures for a given year/make/model never change, so positive answers are
+ * kept forever: first in a bounded in-process LRU, then in the mpg_lookup_cache table
+ * so they survive restarts. "No data" answers (a successful lookup with no match) are
+ * cached too, but only for the negative TTL so a vehicle carapi adds later is eventually
+ * picked up. Failed lookups (errors, non-2xx statuses) are never cached.
+ * City, highway and combined MPG are cached as one entry per vehicle.
+ * Concurrent misses for the same vehicle share a single carapi request.
+ * Active unless mpg.source=epa selects the offline dataset instead.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "mpg.source", havingValue = "carapi", matchIfMissing = true)
+public class CachedCityMpgService implements CityMpgService
+{
+    private static final Logger log = LoggerFactory.getLogger(CachedCityMpgService.class);
+
+    private final CityMpgService _delegate;
+    private final MpgLookupRepository _repository;
+    private final LruCache<String, CachedMpg> _memory;
+    private final Duration _negativeTtl;
+    private final Clock _clock;
+    private final Executor _blockingExecutor;
+    private final SingleFlight<String, MpgFigures> _singleFlight = new SingleFlight<>();
+
+    private final AtomicLong _memoryHits = new AtomicLong();
+    private final AtomicLong _databaseHits = new AtomicLong();
+    private final AtomicLong _misses = new AtomicLong();
+
+    @Autowired
+    public CachedCityMpgService(GetCityMPG delegate, MpgLookupRepository repository,
+                                @Qualifier("blockingExecutor") Executor blockingExecutor,
+                                @Value("${mpg.cache.max-entries:10000}") int maxEntries,
+                                @Value("${mpg.cache.negative-ttl:1d}") Duration negativeTtl)
+    {
+        this(delegate, repository, blockingExecutor, maxEntries, negativeTtl, Clock.systemUTC());
+    }
+
+    public CachedCityMpgService(CityMpgService delegate, MpgLookupRepository repository, Executor blockingExecutor,
+                                int maxEntries, Duration negativeTtl, Clock clock)
+    {
+        this._delegate = delegate;
+        this._repository = repository;
+        this._blockingExecutor = blockingExecutor;
+        this._memory = new LruCache<>(maxEntries);
+        this._negativeTtl = negativeTtl;
+        this._clock = clock;
+    }
+
+    @Override
+    public double getMpg(String make, String model, String year) throws Exception
+    {
+        return getMpg(make, model, year, null);
+    }
+
+    @Override
+    public double getMpg(String make, String model, String year, String submodel) throws Exception
+    {
+        return getMpgFigures(make, model, year, submodel).getCityMpg();
+    }
+
+    @Override
+    public CompletableFuture<Double> getMpgAsync(String make, String model, String year, String submodel)
+    {
+        return getMpgFiguresAsync(make, model, year, submodel).thenApply(MpgFigures::getCityMpg);
+    }
+
+    @Override
+    public MpgFigures getMpgFigures(String make, String model, String year, String submodel) throws Exception
+    {
+        String key = cacheKey(make, model, year, submodel);
+        Instant now = _clock.instant();
+
+        // Tier 1: in-process
+        MpgFigures cached = fromMemory(key, now);
+        if (cached != null)
+        {
+            return cached;
+        }
+
+        // Tier 2: Postgres
+        MpgFigures stored = fromDatabase(key, now);
+        if (stored != null)
+        {
+            return stored;
+        }
+
+        // Remote
+        _misses.incrementAndGet();
+        return _singleFlight.execute(key, () -> remember(key, make, model, year, submodel, _delegate.getMpgFigures(make, model, year, submodel), now));
+    }
+
+    /**
+     * Non-blocking variant: memory hits complete immediately, the database read runs on
+     * the blocking executor, and misses go through the delegate's async lookup.
+     */
+    @Override
+    public CompletableFuture<MpgFigures> getMpgFiguresAsync(String make, String model, String year, String submodel)
+    {
+        String key = cacheKey(make, model, year, submodel);
+        Instant now = _clock.instant();
+
+        MpgFigures cached = fromMemory(key, now);
+        if (cached != null)
+        {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return CompletableFuture.supplyAsync(() -> fromDatabase(key, now), _blockingExecutor)
+                .thenCompose(stored -> {
+                    if (stored != null)
+                    {
+                        return CompletableFuture.completedFuture(stored);
+                    }
+                    _misses.incrementAndGet();
+                    return _singleFlight.executeAsync(key, () -> _delegate.getMpgFiguresAsync(make, model, year, submodel)
+                            .thenApplyAsync(figures -> remember(key, make, model, year, submodel, figures, now), _blockingExecutor));
+                });
+    }
+
+    public long getMemoryHitCount() { return _memoryHits.get(); }
+    public long getDatabaseHitCount() { return _databaseHits.get(); }
+    public long getMissCount() { return _misses.get(); }
+    public long getCollapsedCount() { return _singleFlight.getCollapsedCount(); }
+
+    private MpgFigures fromMemory(String key, Instant now)
+    {
+        CachedMpg cached = _memory.get(key);
+        if (cached != null && isUsable(cached.figures.getCityMpg(), cached.fetchedAt, now))
+        {
+            _memoryHits.incrementAndGet();
+            return cached.figures;
+        }
+        return null;
+    }
+
+    // Rows written before highway and combined MPG were stored count as a miss, so they are refetched once
+    private MpgFigures fromDatabase(String key, Instant now)
+    {
+        MpgLookupEntity stored = findStored(key);
+        if (stored != null && stored.hasAllFigures() && isUsable(stored.getCityMpg(), stored.getFetchedAt(), now))
+        {
+            _databaseHits.incrementAndGet();
+            MpgFigures figures = stored.getMpgFigures();
+            _memory.put(key, new CachedMpg(figures, stored.getFetchedAt()));
+            return figures;
+        }
+        return null;
+    }
+
+    private MpgFigures remember(String key, String make, String model, String year, String submodel, MpgFigures figures, Instant now)
+    {
+        _memory.put(key, new CachedMpg(figures, now));
+        persist(key, make, model, year, submodel, figures, now);
+        return figures;
+    }
+
+    private boolean isUsable(double mpg, Instant fetchedAt, Instant now)
+    {
+        if (mpg > 0.0) return true;
+        return fetchedAt != null && now.isBefore(fetchedAt.plus(_negativeTtl));
+    }
+
+    // The database tier is an optimization; if it is unavailable we still answer from carapi
+    private MpgLookupEntity findStored(String key)
+    {
+        try
+        {
+            Optional<MpgLookupEntity> stored = _repository.findById(key);
+            return stored.orElse(null);
+        }
+        catch (RuntimeException e)
+        {
+            log.warn("MPG cache read failed for {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void persist(String key, String make, String model, String year, String submodel, MpgFigures figures, Instant now)
+    {
+        try
+        {
+            _repository.save(new MpgLookupEntity(key, year, make, model, submodel, figures, now));
+        }
+        catch (RuntimeException e)
+        {
+            log.warn("MPG cache write failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    static String cacheKey(String make, String model, String year, String submodel)
+    {
+        return normalize(year) + "|" + normalize(make) + "|" + normalize(model) + "|" + normalize(submodel);
+    }
+
+    private static String normalize(String value)
+    {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class CachedMpg
+    {
+        private final MpgFigures figures;
+        private final Instant fetchedAt;
+
+        private CachedMpg(MpgFigures figures, Instant fetchedAt)
+        {
+            this.figures = figures;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package service.impl;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import model.GasPriceQuote;
+import model.Region;
+import service.api.GasPriceService;
+import service.cache.LruCache;
+import service.cache.SingleFlight;
+
+/**
+ * Caching decorator in front of the EIA gas price lookup.
+ * EIA publishes retail prices once a week (Monday, ~5pm Eastern), so each
+ * (duoarea, product) entry stays fresh until the release after its period.
+ * Entries that are past that point but within the stale-while-revalidate
+ * window are still served while a background refresh runs. Concurrent misses
+ * for the same key share a single EIA request. When EIA fails or is unavailable
+ * (e.g. its circuit breaker is open), the last known good price is served, however old.
+ * EIA only publishes some states and metros; when a region has no price (0.0) the
+ * nearest wider region in {@link Region#fallbacks} with a cached price is served
+ * instead (metro, state, PADD sub-region, PADD, national), without another EIA call.
+ * A region marked as having no series stays marked until the next weekly release;
+ * a failed fetch is retried after the retry interval.
+ */
+@Service
+@Primary
+public class CachedGasPriceService implements GasPriceService
+{
+    private static final Logger log = LoggerFactory.getLogger(CachedGasPriceService.class);
+
+    private static final ZoneId EIA_ZONE = ZoneId.of("America/New_York");
+    private static final LocalTime EIA_RELEASE_TIME = LocalTime.of(17, 0);
+    private static final GasPriceQuote NO_SERIES = new GasPriceQuote(0.0, null);
+
+    private final GasPriceService _delegate;
+    private final LruCache<String, CachedQuote> _cache;
+    private final Duration _staleWhileRevalidate;
+    private final Duration _retryInterval;
+    private final Clock _clock;
+    private final Set<String> _refreshing = ConcurrentHashMap.newKeySet();
+    private final SingleFlight<String, GasPriceQuote> _singleFlight = new SingleFlight<>();
+
+    private final AtomicLong _hits = new AtomicLong();
+    private final AtomicLong _staleHits = new AtomicLong();
+    private final AtomicLong _misses = new AtomicLong();
+    private final AtomicLong _fallbacks = new AtomicLong();
+    private final AtomicLong _regionFallbacks = new AtomicLong();
+
+    @Autowired
+    public CachedGasPriceService(GetAverageGasPrice delegate,
+                                 @Value("${gas.price.cache.max-entries:256}") int maxEntries,
+                                 @Value("${gas.price.cache.stale-while-revalidate:6h}") Duration staleWhileRevalidate,
+                                 @Value("${gas.price.cache.retry-interval:30m}") Duration retryInterval)
+    {
+        this(delegate, maxEntries, staleWhileRevalidate, retryInterval, Clock.systemUTC());
+    }
+
+    public CachedGasPriceService(GasPriceService delegate, int maxEntries, Duration staleWhileRevalidate,
+                                 Duration retryInterval, Clock clock)
+    {
+        this._delegate = delegate;
+        this._cache = new LruCache<>(maxEntries);
+        this._staleWhileRevalidate = staleWhileRevalidate;
+        this._retryInterval = retryInterval;
+        this._clock = clock;
+    }
+
+    @Override
+    public double getPrice(String region, String fuelType) throws Exception
+    {
+        return getQuote(region, fuelType).getPrice();
+    }
+
+    @Override
+    public GasPriceQuote getQuote(String region, String fuelType) throws Exception
+    {
+        String key = cacheKey(region, fuelType);
+        GasPriceQuote cached = lookup(key, region, fuelType);
+        if (cached != null)
+        {
+            return orWiderRegion(cached, region, fuelType);
+        }
+
+        _misses.incrementAndGet();
+        try
+        {
+            return orWiderRegion(_singleFlight.execute(key, () -> store(key, _delegate.getQuote(region, fuelType))), region, fuelType);
+        }
+        catch (Exception e)
+        {
+            GasPriceQuote fallback = lastKnownGood(key);
+            if (fallback == null)
+            {
+                fallback = widerRegion(region, fuelType);
+            }
+            if (fallback == null)
+            {
+                throw e;
+            }
+            return fallback;
+        }
+    }
+
+    @Override
+    public CompletableFuture<GasPriceQuote> getQuoteAsync(String region, String fuelType)
+    {
+        String key = cacheKey(region, fuelType);
+        GasPriceQuote cached = lookup(key, region, fuelType);
+        if (cached != null)
+        {
+            return CompletableFuture.completedFuture(orWiderRegion(cached, region, fuelType));
+        }
+
+        _misses.incrementAndGet();
+        return loadAsync(key, region, fuelType).thenApply(quote -> orWiderRegion(quote, region, fuelType)).exceptionally(error -> {
+            GasPriceQuote fallback = lastKnownGood(key);
+            if (fallback == null)
+            {
+                fallback = widerRegion(region, fuelType);
+            }
+            if (fallback == null)
+            {
+                throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+            }
+            return fallback;
+        });
+    }
+
+    /**
+     * Seed the cache with a quote fetched elsewhere (e.g. by the batch pre-warmer).
+     */
+    public void put(String region, String fuelType, GasPriceQuote quote)
+    {
+        store(cacheKey(region, fuelType), quote);
+    }
+
+    /**
+     * Record that EIA publishes no series for the region (e.g. the pre-warmer's batch had no
+     * row for it). Until the next weekly release, lookups answer from a wider region without
+     * asking EIA. A real price already cached for the region is kept.
+     */
+    public void putNoSeries(String region, String fuelType)
+    {
+        String key = cacheKey(region, fuelType);
+        CachedQuote existing = _cache.get(key);
+        if (existing != null && existing.quote.getPrice() > 0.0)
+        {
+            return;
+        }
+        _cache.put(key, new CachedQuote(NO_SERIES, nextRelease(_clock.instant())));
+    }
+
+    /**
+     * Drop every cached price so the next lookup goes back to EIA.
+     */
+    public void clear()
+    {
+        _cache.clear();
+    }
+
+    public long getHitCount() { return _hits.get(); }
+    public long getStaleHitCount() { return _staleHits.get(); }
+    public long getMissCount() { return _misses.get(); }
+    public long getCollapsedCount() { return _singleFlight.getCollapsedCount(); }
+    public long getFallbackCount() { return _fallbacks.get(); }
+    public long getRegionFallbackCount() { return _regionFallbacks.get(); }
+    public int size() { return _cache.size(); }
+
+    /**
+     * Returns the cached quote when it is fresh, or stale but inside the revalidate
+     * window (kicking off a background refresh). Returns null on a miss.
+     */
+    private GasPriceQuote lookup(String key, String region, String fuelType)
+    {
+        Instant now = _clock.instant();
+        CachedQuote cached = _cache.get(key);
+        if (cached == null)
+        {
+            return null;
+        }
+        if (now.isBefore(cached.expiresAt))
+        {
+            _hits.incrementAndGet();
+            return cached.quote;
+        }
+        if (now.isBefore(cached.expiresAt.plus(_staleWhileRevalidate)))
+        {
+            // Serve the last known price and let EIA catch up off the request path
+            _staleHits.incrementAndGet();
+            refreshInBackground(key, region, fuelType);
+            return cached.quote;
+        }
+        return null;
+    }
+
+    /**
+     * The newest real price we have for the key regardless of age, or null.
+     * Entries past the revalidate window stay in the LRU until evicted, so this
+     * can still answer when EIA is down.
+     */
+    private GasPriceQuote lastKnownGood(String key)
+    {
+        CachedQuote cached = _cache.get(key);
+        if (cached == null || cached.quote.getPrice() <= 0.0)
+        {
+            return null;
+        }
+        _fallbacks.incrementAndGet();
+        return cached.quote;
+    }
+
+    private GasPriceQuote orWiderRegion(GasPriceQuote quote, String region, String fuelType)
+    {
+        if (quote.getPrice() > 0.0)
+        {
+            return quote;
+        }
+        GasPriceQuote wider = widerRegion(region, fuelType);
+        return wider != null ? wider : quote;
+    }
+
+    /**
+     * The cached price of the nearest wider region that has one, or null.
+     * Only the cache is consulted; the pre-warmer keeps every Region's price in it.
+     */
+    private GasPriceQuote widerRegion(String region, String fuelType)
+    {
+        for (Region wider : Region.fallbacks(region))
+        {
+            CachedQuote cached = _cache.get(cacheKey(wider.getDuoAreaCode(), fuelType));
+            if (cached != null && cached.quote.getPrice() > 0.0)
+            {
+                _regionFallbacks.incrementAndGet();
+                return cached.quote;
+            }
+        }
+        return null;
+    }
+
+    private CompletableFuture<GasPriceQuote> loadAsync(String key, String region, String fuelType)
+    {
+        return _singleFlight.executeAsync(key,
+                () -> _delegate.getQuoteAsync(region, fuelType).thenApply(quote -> store(key, quote)));
+    }
+
+    private void refreshInBackground(String key, String region, String fuelType)
+    {
+        if (!_refreshing.add(key))
+        {
+            return; // A refresh for this key is already running
+        }
+        loadAsync(key, region, fuelType).whenComplete((quote, error) -> {
+            _refreshing.remove(key);
+            if (error != null)
+            {
+                log.warn("Background gas price refresh failed for {}: {}", key, error.getMessage());
+            }
+        });
+    }
+
+    private GasPriceQuote store(String key, GasPriceQuote quote)
+    {
+        Instant now = _clock.instant();
+        CachedQuote existing = _cache.get(key);
+
+        // Never replace a real price with a failed fetch; answer with the last known good one instead
+        if (quote.getPrice() <= 0.0 && existing != null && existing.quote.getPrice() > 0.0)
+        {
+            _fallbacks.incrementAndGet();
+            return existing.quote;
+        }
+        _cache.put(key, new CachedQuote(quote, expiresAt(quote, now)));
+        return quote;
+    }
+
+    /**
+     * A quote expires at the EIA release that follows its period. Failed fetches,
+     * quotes without a period, and releases EIA is running late on are retried
+     * after the retry interval instead.
+     */
+    private Instant expiresAt(GasPriceQuote quote, Instant now)
+    {
+        if (quote.getPrice() <= 0.0 || quote.getPeriod() == null)
+        {
+            return now.plus(_retryInterval);
+        }
+        Instant nextRelease = quote.getPeriod().plusWeeks(1).atTime(EIA_RELEASE_TIME).atZone(EIA_ZONE).toInstant();
+        if (!nextRelease.isAfter(now))
+        {
+            return now.plus(_retryInterval);
+        }
+        return nextRelease;
+    }
+
+    // The first Monday 17:00 Eastern after now
+    private static Instant nextRelease(Instant now)
+    {
+        ZonedDateTime eastern = now.atZone(EIA_ZONE);
+        ZonedDateTime release = eastern.with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY)).with(EIA_RELEASE_TIME);
+        if (!release.isAfter(eastern))
+        {
+            release = release.plusWeeks(1);
+        }
+        return release.toInstant();
+    }
+
+    private static String cacheKey(String region, String fuelType)
+    {
+        return normalize(region) + "|" + normalize(fuelType);
+    }
+
+    private static String normalize(String value)
+    {
+        return value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static final class CachedQuote
+    {
+        private final GasPriceQuote quote;
+        private final Instant expiresAt;
+
+        private CachedQuote(GasPriceQuote quote, Instant expiresAt)
+        {
+            this.quote = quote;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import model.MpgFigures;
+
+/**
+ * Streaming parser for carapi mileage responses:
+ * { "data": [ { "submodel": "SE", "epa_city_mpg": 28, "epa_highway_mpg": 39, "combined_mpg": 32, ... }, ... ], "collection": {...} }
+ * Stops as soon as the requested submodel (or, without one, the first entry) has been read.
+ */
+public final class CarApiResponseParser
+{
+    // JsonFactory is thread-safe and meant to be shared
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private CarApiResponseParser() {}
+
+    /**
+     * City MPG for the matching submodel, falling back to combined MPG, and to the
+     * first entry when no submodel is given or none matches.
+     * @return MPG, or 0.0 if the response has no usable data
+     */
+    public static double parseMpg(InputStream body, String submodel) throws IOException
+    {
+        return parseFigures(body, submodel).getCityMpg();
+    }
+
+    /**
+     * City, highway and combined MPG for the matching submodel, chosen the same way
+     * as {@link #parseMpg}. Figures missing from the entry are 0.0.
+     * @return the figures, or {@link MpgFigures#NONE} if the response has no usable data
+     */
+    public static MpgFigures parseFigures(InputStream body, String submodel) throws IOException
+    {
+        boolean matchSubmodel = submodel != null && !submodel.isEmpty();
+
+        try (JsonParser parser = JSON.createParser(body))
+        {
+            // Response structure: { "data": [...], "collection": {...} } or a bare array
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT)
+            {
+                if (!JsonStreams.moveToField(parser, "data"))
+                {
+                    return MpgFigures.NONE;
+                }
+                token = parser.nextToken();
+            }
+            if (token != JsonToken.START_ARRAY)
+            {
+                return MpgFigures.NONE;
+            }
+
+            MpgFigures firstFigures = MpgFigures.NONE;
+            boolean first = true;
+            while (parser.nextToken() == JsonToken.START_OBJECT)
+            {
+                Entry entry = readEntry(parser);
+                if (first)
+                {
+                    firstFigures = entry.figures();
+                    first = false;
+                    if (!matchSubmodel)
+                    {
+                        return firstFigures;
+                    }
+                }
+                if (entry.submodel != null && submodel.equalsIgnoreCase(entry.submodel))
+                {
+                    return entry.figures();
+                }
+            }
+
+            // Fall back to first result if submodel not found
+            return firstFigures;
+        }
+    }
+
+    private static Entry readEntry(JsonParser parser) throws IOException
+    {
+        Entry entry = new Entry();
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field)
+            {
+                case "submodel" -> entry.submodel = token == JsonToken.VALUE_STRING ? parser.getText() : null;
+                case "epa_city_mpg" -> entry.cityMpg = JsonStreams.readDouble(parser, token);
+                case "epa_highway_mpg" -> entry.highwayMpg = JsonStreams.readDouble(parser, token);
+                case "combined_mpg" -> entry.combinedMpg = JsonStreams.readDouble(parser, token);
+                default -> parser.skipChildren();
+            }
+        }
+        return entry;
+    }
+
+    private static final class Entry
+    {
+        private String submodel;
+        private Double cityMpg;
+        private Double highwayMpg;
+        private Double combinedMpg;
+
+        private MpgFigures figures()
+        {
+            return new MpgFigures(orZero(cityMpg), orZero(highwayMpg), orZero(combinedMpg));
+        }
+
+        private static double orZero(Double mpg)
+        {
+            return mpg == null ? 0.00 : mpg;
+        }
+    }
+}
@@ -1,13 +1,29 @@
 package service.impl;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import entity.UserEntity;
 import entity.VehicleEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import model.CalculateResponse;
 import model.FuelCosts;
+import model.MaintenanceSchedule;
+import model.TotalCostOfOwnership;
 import model.VehicleRequest;
 import repository.VehicleRepository;
 import service.api.CityMpgService;
@@ -19,17 +35,37 @@ import service.api.GasPriceService;
  */
 @Service
 public class CostPerMileCalculator {
+    static final int DEFAULT_PROJECTION_POINTS = 100;
+    static final int MAX_PROJECTION_POINTS = 1000;
 
     private final CityMpgService _mpgService;
     private final GasPriceService _gasService;
     private final VehicleRepository _vehicleRepository;
+    private final VehicleCostResultCache _results;
+    private final RegionResolver _regions;
+    private final MaintenanceSchedule _maintenance;
+    // Null unless the EPA dataset is configured
+    private final VehicleCatalog _catalog;
+    private final Executor _blockingExecutor;
+    private final Duration _deadline;
+    private final MeterRegistry _meterRegistry;
 
-    
-
-    public CostPerMileCalculator(CityMpgService mpgService, GasPriceService gasService, VehicleRepository vehicleRepo) {
+    public CostPerMileCalculator(CityMpgService mpgService, GasPriceService gasService, VehicleRepository vehicleRepo,
+                                 VehicleCostResultCache results, RegionResolver regions, MaintenanceSchedule maintenance,
+                                 ObjectProvider<VehicleCatalog> catalog,
+                                 @Qualifier("blockingExecutor") Executor blockingExecutor,
+                                 @Value("${calculator.deadline:5s}") Duration deadline,
+                                 MeterRegistry meterRegistry) {
         this._mpgService = mpgService;
         this._gasService = gasService;
         this._vehicleRepository = vehicleRepo;
+        this._results = results;
+        this._regions = regions;
+        this._maintenance = maintenance;
+        this._catalog = catalog.getIfAvailable();
+        this._blockingExecutor = blockingExecutor;
+        this._deadline = deadline;
+        this._meterRegistry = meterRegistry;
     }
 
     /**
@@ -38,38 +74,219 @@ public class CostPerMileCalculator {
      * Using waterfall logic: if user provides MPG and/or Gas Price, those are used;
      * otherwise, if user is logged in and provides vehicleId, MPG is pulled from the database;
      * lastly, MPG and gas price are pulled from external APIs based on form data.
+     * The gas price and MPG lookups run concurrently, so the caller waits for the
+     * slower of the two rather than their sum, bounded by the calculator deadline.
+     * Both lookups are started up front and joined; upstream calls use the services'
+     * async APIs and the saved-vehicle query runs on the blocking executor, so no
+     * request thread waits on I/O. Fails with 504 if the deadline passes first.
+     * If EIA or carapi is unavailable (error, timeout, open circuit) the response is
+     * flagged degraded with whatever figures we did get, instead of failing.
+     * When the vehicle catalog is loaded, a guest lookup for a vehicle it does not
+     * know fails with 400 before any upstream call is made.
+     * For a saved vehicle priced from EIA, the result stored for this week's price is
+     * returned when there is one (no vehicle query); a fresh result is stored for next time.
+     * Complete responses also carry total cost of ownership (fuel plus the maintenance
+     * schedule) and, when the request sets horizonMiles, a projection curve of
+     * projectionPoints points (default 100, at most 1000; anything else fails with 400).
+     * The region may be an EIA code, state, ZIP or coordinates; it is priced at the
+     * most local EIA region (see {@link RegionResolver}).
+     * When the request sets cityShare, city and highway MPG are blended for that mix;
+     * both come from the same lookup (or the saved vehicle), so no extra upstream call.
+     * End-to-end latency is recorded as calculator.requests, tagged by the MPG branch taken.
      */
-    public CalculateResponse calculateCostPerMile(VehicleRequest request, UserEntity user) throws Exception {
-        double mpg;
-        double gasPrice;
+    public CompletableFuture<CalculateResponse> calculateCostPerMileAsync(VehicleRequest request, UserEntity user) {
+        try {
+            projectionPoints(request);
+        } catch (ResponseStatusException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (_catalog != null && request.getManualMpg() == null && (user == null || request.getVehicleId() == null)) {
+            try {
+                _catalog.requireKnown(request.getYear(), request.getMake(), request.getModel());
+            } catch (ResponseStatusException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        Timer.Sample sample = Timer.start(_meterRegistry);
+        String branch;
+        String region = _regions.resolveCode(request.getRegion());
 
+        if (request.getManualMpg() == null && request.getManualGasPrice() == null
+                && request.getCityShare() == null && user != null && request.getVehicleId() != null) {
+            return finish(calculateSavedVehicle(request, user, region), request, "saved", sample);
+        }
+
+        CompletableFuture<Double> gasPrice;
         if (request.getManualGasPrice() != null) {
-            gasPrice = request.getManualGasPrice();
+            gasPrice = CompletableFuture.completedFuture(request.getManualGasPrice());
         } else {
-            gasPrice = _gasService.getPrice(request.getRegion(), request.getFuelType());
+            gasPrice = _gasService.getPriceAsync(region, request.getFuelType());
         }
 
+        CompletableFuture<Double> mpg;
         if (request.getManualMpg() != null) {
-            mpg = request.getManualMpg();
+            branch = "manual";
+            mpg = CompletableFuture.completedFuture(request.getManualMpg());
+        } else if (user != null && request.getVehicleId() != null) {
+            // Logged in: Pull the MPG from the database
+            branch = "saved";
+            mpg = CompletableFuture.supplyAsync(() -> mpgFor(findSavedVehicle(request, user), request.getCityShare()), _blockingExecutor);
+        } else if (request.getCityShare() != null) {
+            // Guest with a driving mix: one lookup returns both figures to blend
+            branch = "guest";
+            double cityShare = request.getCityShare();
+            mpg = _mpgService.getMpgFiguresAsync(request.getMake(), request.getModel(), request.getYear(), request.getSubModel())
+                .thenApply(figures -> figures.blend(cityShare));
         } else {
-            if (user != null && request.getVehicleId() != null) {
-                // Logged in: Pull the MPG from the database
-                VehicleEntity savedVehicle = _vehicleRepository.findByVehicleIdAndOwnerId(request.getVehicleId(), user)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Vehicle not found for user"));
-                
-                mpg = savedVehicle.getCityMpg();
-            } else {
-                // Guest: Call the external API using form data
-                mpg = _mpgService.getMpg(request.getMake(), request.getModel(), request.getYear(), request.getSubModel());
+            // Guest: Call the external API using form data
+            branch = "guest";
+            mpg = _mpgService.getMpgAsync(request.getMake(), request.getModel(), request.getYear(), request.getSubModel());
+        }
+
+        return finish(unlessUnavailable(gasPrice).thenCombine(unlessUnavailable(mpg), this::combine), request, branch, sample);
+    }
+
+    // Saved vehicle, EIA price: the week's stored result if any, else the vehicle's MPG and a stored fresh result
+    private CompletableFuture<CalculateResponse> calculateSavedVehicle(VehicleRequest request, UserEntity user, String region) {
+        String fuelType = request.getFuelType();
+        return _gasService.getQuoteAsync(region, fuelType)
+            .thenApplyAsync(quote -> {
+                CalculateResponse stored = _results.find(request.getVehicleId(), user.getUserId(), region, fuelType, quote.getPeriod());
+                if (stored != null) {
+                    return toResponse(stored.getGasPrice(), stored.getCityMpg(), _maintenance);
+                }
+                CalculateResponse response = toResponse(quote.getPrice(), findSavedVehicle(request, user).getCityMpg(), _maintenance);
+                _results.store(request.getVehicleId(), user.getUserId(), region, fuelType, quote.getPeriod(), response);
+                return response;
+            }, _blockingExecutor)
+            .exceptionallyCompose(error -> {
+                if (!isUpstreamFailure(error)) {
+                    return CompletableFuture.failedFuture(error);
+                }
+                // No price: still report the vehicle's MPG, flagged degraded
+                return CompletableFuture.supplyAsync(() -> combine(null, findSavedVehicle(request, user).getCityMpg()), _blockingExecutor);
+            });
+    }
+
+    private CompletableFuture<CalculateResponse> finish(CompletableFuture<CalculateResponse> calculation, VehicleRequest request,
+                                                        String branch, Timer.Sample sample) {
+        return calculation
+            .thenApply(response -> withProjection(response, request, _maintenance))
+            .orTimeout(_deadline.toMillis(), TimeUnit.MILLISECONDS)
+            .exceptionally(error -> {
+                throw translate(error);
+            })
+            .whenComplete((response, error) -> sample.stop(timer(branch, outcome(response, error))));
+    }
+
+    private Timer timer(String branch, String outcome) {
+        return Timer.builder("calculator.requests")
+            .description("End-to-end cost-per-mile calculations")
+            .tags("branch", branch, "outcome", outcome)
+            .publishPercentileHistogram()
+            .register(_meterRegistry);
+    }
+
+    private static String outcome(CalculateResponse response, Throwable error) {
+        if (error == null) {
+            if (response.isDegraded()) return "DEGRADED";
+            return response.getCostPerMile() > 0.0 ? "SUCCESS" : "ZERO";
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ResponseStatusException status && status.getStatusCode().value() == HttpStatus.GATEWAY_TIMEOUT.value()) {
+            return "TIMEOUT";
+        }
+        return "ERROR";
+    }
+
+    private VehicleEntity findSavedVehicle(VehicleRequest request, UserEntity user) {
+        return _vehicleRepository.findByVehicleIdAndOwnerId(request.getVehicleId(), user)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Vehicle not found for user"));
+    }
+
+    // City MPG unless the request gives a city/highway mix
+    private static double mpgFor(VehicleEntity vehicle, Double cityShare) {
+        if (cityShare == null) {
+            return vehicle.getCityMpg();
+        }
+        return vehicle.getMpgFigures().blend(cityShare);
+    }
+
+    private static RuntimeException translate(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Timed out waiting for MPG or gas price");
+        }
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new CompletionException(cause);
+    }
+
+    // Upstream I/O failures become null so the other figure can still be returned
+    private static CompletableFuture<Double> unlessUnavailable(CompletableFuture<Double> lookup) {
+        return lookup.exceptionally(error -> {
+            if (isUpstreamFailure(error)) {
+                return null;
             }
+            throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+        });
+    }
+
+    private static boolean isUpstreamFailure(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof UncheckedIOException) && cause.getCause() != null) {
+            cause = cause.getCause();
         }
+        return cause instanceof IOException;
+    }
 
-        
+    private CalculateResponse combine(Double gasPrice, Double mpg) {
+        return combine(gasPrice, mpg, _maintenance);
+    }
+
+    // A null figure is one the upstream could not supply: the response is flagged degraded
+    static CalculateResponse combine(Double gasPrice, Double mpg, MaintenanceSchedule maintenance) {
+        if (gasPrice == null || mpg == null) {
+            return new CalculateResponse(mpg == null ? 0.0 : mpg, gasPrice == null ? 0.0 : gasPrice, 0.0, true);
+        }
+        return toResponse(gasPrice, mpg, maintenance);
+    }
+
+    static CalculateResponse toResponse(double gasPrice, double mpg, MaintenanceSchedule maintenance) {
         if (mpg == 0.0 || gasPrice == 0.0) return new CalculateResponse(0.0, 0.0, 0.0);
 
         double costPerMile = new FuelCosts(gasPrice).costPerMile(mpg);
 
-        return new CalculateResponse(mpg, gasPrice, costPerMile);
+        CalculateResponse response = new CalculateResponse(mpg, gasPrice, costPerMile);
+        response.setOwnership(new TotalCostOfOwnership(costPerMile, maintenance));
+        return response;
+    }
+
+    /** The request's projection point count, or the default; 400 when outside 1 to {@value #MAX_PROJECTION_POINTS}. */
+    static int projectionPoints(VehicleRequest request) {
+        Integer points = request.getProjectionPoints();
+        if (points == null) {
+            return DEFAULT_PROJECTION_POINTS;
+        }
+        if (points < 1 || points > MAX_PROJECTION_POINTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "projectionPoints must be between 1 and " + MAX_PROJECTION_POINTS);
+        }
+        return points;
+    }
+
+    static CalculateResponse withProjection(CalculateResponse response, VehicleRequest request, MaintenanceSchedule maintenance) {
+        Integer horizonMiles = request.getHorizonMiles();
+        if (horizonMiles == null || horizonMiles <= 0 || response.getCostPerMile() == 0.0) {
+            return response;
+        }
+        double[] miles = TotalCostOfOwnership.mileages(horizonMiles, projectionPoints(request));
+        double[] costs = new double[miles.length];
+        new TotalCostOfOwnership(response.getCostPerMile(), maintenance).project(miles, costs);
+        response.setProjection(miles, costs);
+        return response;
     }
 
 }
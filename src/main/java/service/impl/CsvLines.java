@@ -0,0 +1,55 @@
+package service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits one line of a CSV file into fields, for the EPA dataset and uploaded trip logs.
+ */
+public final class CsvLines
+{
+    private CsvLines() {}
+
+    // RFC 4180 style: fields may be quoted, with "" as an escaped quote
+    public static List<String> split(String line)
+    {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++)
+        {
+            char c = line.charAt(i);
+            if (quoted)
+            {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"')
+                {
+                    field.append('"');
+                    i++;
+                }
+                else if (c == '"')
+                {
+                    quoted = false;
+                }
+                else
+                {
+                    field.append(c);
+                }
+            }
+            else if (c == '"')
+            {
+                quoted = true;
+            }
+            else if (c == ',')
+            {
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else
+            {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,187 @@
+package service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import model.GasPriceQuote;
+
+/**
+ * Streaming parser for EIA v2 petroleum price responses:
+ * { "response": { "data": [ { "period": "2024-10-14", "value": 3.123, ... }, ... ] } }
+ * Never builds a tree; the latest-price methods stop reading as soon as they have what they need.
+ */
+public final class EiaResponseParser
+{
+    private static final Logger log = LoggerFactory.getLogger(EiaResponseParser.class);
+
+    // JsonFactory is thread-safe and meant to be shared
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private EiaResponseParser() {}
+
+    /**
+     * Extract the latest (first) price and its period.
+     * @return the quote, with price 0.0 and no period if the response has no usable data
+     */
+    public static GasPriceQuote parseLatest(InputStream body) throws IOException
+    {
+        try (JsonParser parser = JSON.createParser(body))
+        {
+            if (!JsonStreams.moveToField(parser, "response") || parser.nextToken() != JsonToken.START_OBJECT
+                    || !JsonStreams.moveToField(parser, "data") || parser.nextToken() != JsonToken.START_ARRAY
+                    || parser.nextToken() != JsonToken.START_OBJECT)
+            {
+                log.error("No data found in EIA response");
+                return new GasPriceQuote(0.0, null);
+            }
+
+            // Get the first (most recent) entry
+            Double price = null;
+            LocalDate period = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if ("value".equals(field))
+                {
+                    price = JsonStreams.readDouble(parser, token);
+                }
+                else if ("period".equals(field))
+                {
+                    period = token == JsonToken.VALUE_STRING ? parsePeriod(parser.getText()) : null;
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+                if (price != null && period != null)
+                {
+                    break; // Everything we need; stop reading
+                }
+            }
+
+            if (price == null)
+            {
+                log.error("Missing price value in EIA response");
+                return new GasPriceQuote(0.0, null);
+            }
+            return new GasPriceQuote(price, period);
+        }
+    }
+
+    /**
+     * Extract the latest price per duoarea from a multi-area response sorted by period
+     * descending: the first row seen for an area is its latest. Stops reading once
+     * every expected area has a price.
+     */
+    public static Map<String, GasPriceQuote> parseLatestByArea(InputStream body, int expectedAreas) throws IOException
+    {
+        Map<String, GasPriceQuote> latest = new LinkedHashMap<>();
+        try (JsonParser parser = JSON.createParser(body))
+        {
+            if (!JsonStreams.moveToField(parser, "response") || parser.nextToken() != JsonToken.START_OBJECT
+                    || !JsonStreams.moveToField(parser, "data") || parser.nextToken() != JsonToken.START_ARRAY)
+            {
+                log.error("No data found in EIA response");
+                return latest;
+            }
+
+            while (parser.nextToken() == JsonToken.START_OBJECT && latest.size() < expectedAreas)
+            {
+                String duoarea = null;
+                Double price = null;
+                LocalDate period = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME)
+                {
+                    String field = parser.currentName();
+                    JsonToken token = parser.nextToken();
+                    switch (field)
+                    {
+                        case "duoarea" -> duoarea = token == JsonToken.VALUE_STRING ? parser.getText() : null;
+                        case "value" -> price = JsonStreams.readDouble(parser, token);
+                        case "period" -> period = token == JsonToken.VALUE_STRING ? parsePeriod(parser.getText()) : null;
+                        default -> parser.skipChildren();
+                    }
+                }
+                if (duoarea != null && price != null && !latest.containsKey(duoarea))
+                {
+                    latest.put(duoarea, new GasPriceQuote(price, period));
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Extract every row with a price and a period, grouped by duoarea in response order.
+     */
+    public static Map<String, List<GasPriceQuote>> parseSeriesByArea(InputStream body) throws IOException
+    {
+        Map<String, List<GasPriceQuote>> series = new LinkedHashMap<>();
+        try (JsonParser parser = JSON.createParser(body))
+        {
+            if (!JsonStreams.moveToField(parser, "response") || parser.nextToken() != JsonToken.START_OBJECT
+                    || !JsonStreams.moveToField(parser, "data") || parser.nextToken() != JsonToken.START_ARRAY)
+            {
+                log.error("No data found in EIA response");
+                return series;
+            }
+
+            while (parser.nextToken() == JsonToken.START_OBJECT)
+            {
+                String duoarea = null;
+                Double price = null;
+                LocalDate period = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME)
+                {
+                    String field = parser.currentName();
+                    JsonToken token = parser.nextToken();
+                    switch (field)
+                    {
+                        case "duoarea" -> duoarea = token == JsonToken.VALUE_STRING ? parser.getText() : null;
+                        case "value" -> price = JsonStreams.readDouble(parser, token);
+                        case "period" -> period = token == JsonToken.VALUE_STRING ? parsePeriod(parser.getText()) : null;
+                        default -> parser.skipChildren();
+                    }
+                }
+                if (duoarea != null && price != null && period != null)
+                {
+                    series.computeIfAbsent(duoarea, area -> new ArrayList<>()).add(new GasPriceQuote(price, period));
+                }
+            }
+        }
+        return series;
+    }
+
+    /**
+     * EIA weekly periods are ISO dates (yyyy-MM-dd); anything else is treated as unknown.
+     */
+    static LocalDate parsePeriod(String period)
+    {
+        if (period == null || period.isEmpty())
+        {
+            return null;
+        }
+        try
+        {
+            return LocalDate.parse(period);
+        }
+        catch (DateTimeParseException e)
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package service.impl;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import model.MpgFigures;
+import service.api.CityMpgService;
+
+/**
+ * MPG lookups answered from the local EPA dataset instead of carapi.
+ * Enabled with mpg.source=epa (and epa.dataset.path); no network is involved,
+ * so the async variant completes immediately.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "mpg.source", havingValue = "epa")
+public class EpaCityMpgService implements CityMpgService
+{
+    private final EpaFuelEconomyIndex _index;
+
+    public EpaCityMpgService(EpaFuelEconomyIndex index)
+    {
+        this._index = index;
+    }
+
+    @Override
+    public double getMpg(String make, String model, String year)
+    {
+        return getMpg(make, model, year, null);
+    }
+
+    @Override
+    public double getMpg(String make, String model, String year, String submodel)
+    {
+        return _index.cityMpg(make, model, year, submodel);
+    }
+
+    @Override
+    public CompletableFuture<Double> getMpgAsync(String make, String model, String year, String submodel)
+    {
+        return CompletableFuture.completedFuture(getMpg(make, model, year, submodel));
+    }
+
+    @Override
+    public MpgFigures getMpgFigures(String make, String model, String year, String submodel)
+    {
+        int row = _index.findRow(make, model, year, submodel);
+        if (row < 0)
+        {
+            return MpgFigures.NONE;
+        }
+        return new MpgFigures(_index.cityMpg(row), _index.highwayMpg(row), _index.combinedMpg(row));
+    }
+
+    @Override
+    public CompletableFuture<MpgFigures> getMpgFiguresAsync(String make, String model, String year, String submodel)
+    {
+        return CompletableFuture.completedFuture(getMpgFigures(make, model, year, submodel));
+    }
+}
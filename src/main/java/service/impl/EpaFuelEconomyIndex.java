@@ -0,0 +1,300 @@
+package service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory index over the EPA fueleconomy.gov bulk dataset (vehicles.csv from
+ * https://www.fueleconomy.gov/feg/download.shtml).
+ * Rows are stored column-wise in primitive arrays with interned strings, and looked
+ * up through a map from year/make/model to row ids. Make and model matching ignores
+ * case and punctuation ("F-150" finds "F150"); a model may be given either as EPA's
+ * base model ("Camry") or its full model name ("Camry Hybrid LE").
+ */
+public final class EpaFuelEconomyIndex
+{
+    private static final Logger log = LoggerFactory.getLogger(EpaFuelEconomyIndex.class);
+    private static final int[] NO_ROWS = new int[0];
+
+    private final short[] _years;
+    private final String[] _makes;
+    private final String[] _baseModels;
+    private final String[] _models;
+    private final float[] _cityMpg;
+    private final float[] _highwayMpg;
+    private final float[] _combinedMpg;
+    private final Map<String, int[]> _rowsByVehicle;
+    private final int _skippedRows;
+
+    private EpaFuelEconomyIndex(Columns columns, int skippedRows)
+    {
+        int size = columns.years.size();
+        this._skippedRows = skippedRows;
+        this._years = new short[size];
+        this._makes = columns.makes.toArray(new String[0]);
+        this._baseModels = columns.baseModels.toArray(new String[0]);
+        this._models = columns.models.toArray(new String[0]);
+        this._cityMpg = new float[size];
+        this._highwayMpg = new float[size];
+        this._combinedMpg = new float[size];
+        for (int i = 0; i < size; i++)
+        {
+            _years[i] = columns.years.get(i);
+            _cityMpg[i] = columns.city.get(i);
+            _highwayMpg[i] = columns.highway.get(i);
+            _combinedMpg[i] = columns.combined.get(i);
+        }
+
+        // Each row is reachable by its base model and, when different, its full model name
+        Map<String, List<Integer>> rows = new HashMap<>();
+        for (int i = 0; i < size; i++)
+        {
+            rows.computeIfAbsent(key(_years[i], _makes[i], _baseModels[i]), k -> new ArrayList<>()).add(i);
+            if (!normalize(_models[i]).equals(normalize(_baseModels[i])))
+            {
+                rows.computeIfAbsent(key(_years[i], _makes[i], _models[i]), k -> new ArrayList<>()).add(i);
+            }
+        }
+        this._rowsByVehicle = new HashMap<>(rows.size() * 4 / 3 + 1);
+        rows.forEach((key, ids) -> _rowsByVehicle.put(key, ids.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    public static EpaFuelEconomyIndex load(Path csv) throws IOException
+    {
+        try (Reader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8))
+        {
+            return load(reader);
+        }
+    }
+
+    public static EpaFuelEconomyIndex load(Reader csv) throws IOException
+    {
+        BufferedReader reader = csv instanceof BufferedReader buffered ? buffered : new BufferedReader(csv);
+        String header = reader.readLine();
+        if (header == null)
+        {
+            throw new IOException("EPA dataset is empty");
+        }
+        List<String> names = CsvLines.split(header);
+        int year = requireColumn(names, "year");
+        int make = requireColumn(names, "make");
+        int model = requireColumn(names, "model");
+        int baseModel = names.indexOf("baseModel");
+        int city = requireColumn(names, "city08");
+        int highway = requireColumn(names, "highway08");
+        int combined = requireColumn(names, "comb08");
+
+        // Many rows share a make or model, so interning keeps one copy of each string
+        Map<String, String> pool = new HashMap<>();
+        Columns columns = new Columns();
+        int skipped = 0;
+        long lineNumber = 1;
+        long firstSkippedLine = 0;
+        String firstSkippedReason = null;
+        String line;
+        while ((line = reader.readLine()) != null)
+        {
+            lineNumber++;
+            if (line.isBlank())
+            {
+                continue;
+            }
+            List<String> fields = CsvLines.split(line);
+            String rowMake;
+            String rowModel;
+            String rowBaseModel;
+            short rowYear;
+            float rowCity;
+            float rowHighway;
+            float rowCombined;
+            try
+            {
+                rowMake = fields.get(make);
+                rowModel = fields.get(model);
+                rowBaseModel = baseModel >= 0 ? fields.get(baseModel) : "";
+                rowYear = Short.parseShort(fields.get(year).trim());
+                rowCity = parseMpg(fields.get(city));
+                rowHighway = parseMpg(fields.get(highway));
+                rowCombined = parseMpg(fields.get(combined));
+            }
+            catch (RuntimeException e) // Missing column or bad number
+            {
+                if (skipped++ == 0)
+                {
+                    firstSkippedLine = lineNumber;
+                    firstSkippedReason = e.getMessage();
+                }
+                continue;
+            }
+            String modelName = intern(pool, rowModel);
+            columns.years.add(rowYear);
+            columns.makes.add(intern(pool, rowMake));
+            columns.models.add(modelName);
+            columns.baseModels.add(rowBaseModel.isBlank() ? modelName : intern(pool, rowBaseModel));
+            columns.city.add(rowCity);
+            columns.highway.add(rowHighway);
+            columns.combined.add(rowCombined);
+        }
+        // One summary rather than a line per row: a bad export can have thousands
+        if (skipped > 0)
+        {
+            log.warn("Skipped {} malformed EPA rows (first at line {}: {})", skipped, firstSkippedLine, firstSkippedReason);
+        }
+        return new EpaFuelEconomyIndex(columns, skipped);
+    }
+
+    /**
+     * City MPG for the matching vehicle, falling back to combined MPG. The submodel is
+     * matched against the rest of EPA's model name ("Camry" + "Hybrid LE"); with no
+     * submodel, or none matching, the first row for the model is used.
+     * @return MPG, or 0.0 if the dataset has no such vehicle
+     */
+    public double cityMpg(String make, String model, String year, String submodel)
+    {
+        int row = findRow(make, model, year, submodel);
+        if (row < 0)
+        {
+            return 0.00;
+        }
+        return _cityMpg[row] > 0 ? _cityMpg[row] : _combinedMpg[row];
+    }
+
+    /**
+     * Row id of the best match, or -1.
+     */
+    public int findRow(String make, String model, String year, String submodel)
+    {
+        int[] rows = rows(make, model, year);
+        if (rows.length == 0)
+        {
+            return -1;
+        }
+        if (submodel != null && !submodel.isBlank())
+        {
+            String wantedFull = normalize(model + submodel);
+            String wantedSub = normalize(submodel);
+            for (int row : rows)
+            {
+                String candidate = normalize(_models[row]);
+                if (candidate.equals(wantedFull) || candidate.equals(wantedSub) || normalize(submodel(row)).equals(wantedSub))
+                {
+                    return row;
+                }
+            }
+        }
+        // Fall back to first result if submodel not found
+        return rows[0];
+    }
+
+    private int[] rows(String make, String model, String year)
+    {
+        if (make == null || model == null || year == null)
+        {
+            return NO_ROWS;
+        }
+        short parsedYear;
+        try
+        {
+            parsedYear = Short.parseShort(year.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            return NO_ROWS;
+        }
+        return _rowsByVehicle.getOrDefault(key(parsedYear, make, model), NO_ROWS);
+    }
+
+    public int size() { return _years.length; }
+    public int skippedRows() { return _skippedRows; }
+    public int year(int row) { return _years[row]; }
+    public String make(int row) { return _makes[row]; }
+    public String baseModel(int row) { return _baseModels[row]; }
+    public String model(int row) { return _models[row]; }
+    public double cityMpg(int row) { return _cityMpg[row]; }
+    public double highwayMpg(int row) { return _highwayMpg[row]; }
+    public double combinedMpg(int row) { return _combinedMpg[row]; }
+
+    /**
+     * The part of EPA's model name after the base model ("Hybrid LE" for
+     * "Camry Hybrid LE"), or "" for the base model itself.
+     */
+    public String submodel(int row)
+    {
+        String model = _models[row];
+        String base = _baseModels[row];
+        if (model.length() > base.length() && model.regionMatches(true, 0, base, 0, base.length()))
+        {
+            return model.substring(base.length()).trim();
+        }
+        return model.equalsIgnoreCase(base) ? "" : model;
+    }
+
+    private static String key(short year, String make, String model)
+    {
+        return year + "|" + normalize(make) + "|" + normalize(model);
+    }
+
+    // Case- and punctuation-insensitive form used for matching
+    static String normalize(String value)
+    {
+        if (value == null)
+        {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c))
+            {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static int requireColumn(List<String> names, String name) throws IOException
+    {
+        int index = names.indexOf(name);
+        if (index < 0)
+        {
+            throw new IOException("EPA dataset is missing the " + name + " column");
+        }
+        return index;
+    }
+
+    private static String intern(Map<String, String> pool, String value)
+    {
+        String trimmed = value.trim();
+        return pool.computeIfAbsent(trimmed, v -> v);
+    }
+
+    private static float parseMpg(String value)
+    {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? 0f : Float.parseFloat(trimmed);
+    }
+
+    // Growable columns used only while loading
+    private static final class Columns
+    {
+        private final List<Short> years = new ArrayList<>();
+        private final List<String> makes = new ArrayList<>();
+        private final List<String> baseModels = new ArrayList<>();
+        private final List<String> models = new ArrayList<>();
+        private final List<Float> city = new ArrayList<>();
+        private final List<Float> highway = new ArrayList<>();
+        private final List<Float> combined = new ArrayList<>();
+    }
+}
@@ -0,0 +1,67 @@
+package service.impl;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import model.Region;
+
+/**
+ * Appends newly published EIA weeks to the price history for every Region.
+ * Runs at startup and on its own schedule, by default the same Monday/Tuesday evening
+ * window in which EIA publishes, independently of whether the price cache is pre-warmed.
+ */
+@Component
+public class GasPriceHistoryRefresher
+{
+    private static final Logger log = LoggerFactory.getLogger(GasPriceHistoryRefresher.class);
+
+    private final GasPriceHistoryService _history;
+    private final List<String> _fuelTypes;
+    private final boolean _enabled;
+
+    public GasPriceHistoryRefresher(GasPriceHistoryService history,
+                                    @Value("${gas.price.history.fuel-types:EPMR,EPMM,EPMP}") String[] fuelTypes,
+                                    @Value("${gas.price.history.refresh.enabled:true}") boolean enabled)
+    {
+        this._history = history;
+        this._fuelTypes = Arrays.asList(fuelTypes);
+        this._enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshOnStartup()
+    {
+        refresh();
+    }
+
+    @Scheduled(cron = "${gas.price.history.refresh.cron:0 15/30 17-23 * * MON-TUE}", zone = "America/New_York")
+    public void refresh()
+    {
+        if (!_enabled)
+        {
+            return;
+        }
+
+        List<String> duoareas = Arrays.stream(Region.values()).map(Region::getDuoAreaCode).toList();
+        for (String fuelType : _fuelTypes)
+        {
+            try
+            {
+                int stored = _history.refresh(duoareas, fuelType);
+                log.info("Stored {} new weeks of {} price history", stored, fuelType);
+            }
+            catch (Exception e)
+            {
+                log.warn("Gas price history refresh failed for {}: {}", fuelType, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package service.impl;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import entity.GasPriceHistoryEntity;
+import entity.GasPriceHistoryKey;
+import model.GasPriceQuote;
+import model.PriceHistoryResponse;
+import model.Region;
+import repository.GasPriceHistoryRepository;
+
+/**
+ * Weekly EIA price history per (duoarea, product), persisted in gas_price_history and
+ * mirrored in memory as one {@link PriceSeries} per key, so trend queries never call EIA.
+ * Each series is loaded from the database the first time it is asked for, so memory
+ * holds only the areas and fuel types in use; each refresh asks EIA only for weeks after
+ * the latest one already stored (or the backfill window for a new series) and appends
+ * them to both. Refreshes are scheduled by {@link GasPriceHistoryRefresher}.
+ */
+@Service
+public class GasPriceHistoryService
+{
+    // EIA v2 returns at most this many rows per request
+    private static final int MAX_ROWS = 5000;
+
+    private final GetAverageGasPrice _eia;
+    private final GasPriceHistoryRepository _repository;
+    private final int _backfillWeeks;
+    private final Clock _clock;
+    private final Map<String, PriceSeries> _series = new ConcurrentHashMap<>();
+
+    @Autowired
+    public GasPriceHistoryService(GetAverageGasPrice eia, GasPriceHistoryRepository repository,
+                                  @Value("${gas.price.history.backfill-weeks:104}") int backfillWeeks)
+    {
+        this(eia, repository, backfillWeeks, Clock.systemUTC());
+    }
+
+    public GasPriceHistoryService(GetAverageGasPrice eia, GasPriceHistoryRepository repository, int backfillWeeks, Clock clock)
+    {
+        this._eia = eia;
+        this._repository = repository;
+        this._backfillWeeks = backfillWeeks;
+        this._clock = clock;
+    }
+
+    /**
+     * Fetch and store the weeks EIA has published since the last refresh.
+     * Series with stored weeks share one request starting after the oldest of their
+     * latest weeks. Series with nothing stored share another, over the backfill window,
+     * so adding a region never re-fetches the backfill for the others. Each request is
+     * paged until EIA has no more rows, so no week is dropped by the row limit.
+     * @return number of new weeks stored across all duoareas
+     */
+    public synchronized int refresh(Collection<String> duoareas, String fuelType) throws Exception
+    {
+        LocalDate today = LocalDate.now(_clock);
+        List<String> storedAreas = new ArrayList<>();
+        List<String> newAreas = new ArrayList<>();
+        LocalDate since = today;
+        for (String duoarea : duoareas)
+        {
+            long last = series(duoarea, fuelType).lastEpochDay();
+            if (last == Long.MIN_VALUE)
+            {
+                newAreas.add(duoarea);
+                continue;
+            }
+            storedAreas.add(duoarea);
+            LocalDate next = LocalDate.ofEpochDay(last + 1);
+            if (next.isBefore(since))
+            {
+                since = next;
+            }
+        }
+
+        int stored = 0;
+        if (!storedAreas.isEmpty())
+        {
+            stored += fetchAndStore(storedAreas, fuelType, since, today);
+        }
+        if (!newAreas.isEmpty())
+        {
+            stored += fetchAndStore(newAreas, fuelType, today.minusWeeks(_backfillWeeks), today);
+        }
+        return stored;
+    }
+
+    private int fetchAndStore(List<String> duoareas, String fuelType, LocalDate since, LocalDate today) throws Exception
+    {
+        // At most one row per area per week, which bounds the paging if EIA ignores the offset
+        long expectedRows = (ChronoUnit.WEEKS.between(since, today) + 1) * duoareas.size();
+        int length = (int) Math.min(MAX_ROWS, expectedRows);
+
+        Map<String, List<GasPriceQuote>> fetched = new HashMap<>();
+        for (int offset = 0; offset < expectedRows; offset += length)
+        {
+            Map<String, List<GasPriceQuote>> page = _eia.getHistory(duoareas, fuelType, since, length, offset);
+            int rowCount = 0;
+            for (Map.Entry<String, List<GasPriceQuote>> area : page.entrySet())
+            {
+                fetched.computeIfAbsent(area.getKey(), k -> new ArrayList<>()).addAll(area.getValue());
+                rowCount += area.getValue().size();
+            }
+            if (rowCount < length)
+            {
+                break; // Last page
+            }
+        }
+
+        Instant now = _clock.instant();
+        List<GasPriceHistoryEntity> rows = new ArrayList<>();
+        List<Runnable> appends = new ArrayList<>();
+        for (Map.Entry<String, List<GasPriceQuote>> area : fetched.entrySet())
+        {
+            String duoarea = area.getKey();
+            long last = series(duoarea, fuelType).lastEpochDay();
+            // Sorted and de-duplicated by period; only weeks after the stored ones are new
+            TreeMap<LocalDate, Double> added = new TreeMap<>();
+            for (GasPriceQuote quote : area.getValue())
+            {
+                if (quote.getPeriod().toEpochDay() > last)
+                {
+                    added.putIfAbsent(quote.getPeriod(), quote.getPrice());
+                }
+            }
+            if (added.isEmpty())
+            {
+                continue;
+            }
+            long[] days = new long[added.size()];
+            double[] prices = new double[added.size()];
+            int i = 0;
+            for (Map.Entry<LocalDate, Double> week : added.entrySet())
+            {
+                days[i] = week.getKey().toEpochDay();
+                prices[i++] = week.getValue();
+                rows.add(new GasPriceHistoryEntity(new GasPriceHistoryKey(duoarea, fuelType, week.getKey()), week.getValue(), now));
+            }
+            appends.add(() -> _series.compute(key(duoarea, fuelType),
+                    (k, existing) -> (existing == null ? PriceSeries.EMPTY : existing).append(days, prices, days.length)));
+        }
+
+        // Persist first so memory never holds weeks the database does not
+        _repository.saveAll(rows);
+        appends.forEach(Runnable::run);
+        return rows.size();
+    }
+
+    // Loaded on first use; a key with nothing stored is remembered as EMPTY until a refresh appends to it
+    public PriceSeries series(String duoarea, String fuelType)
+    {
+        return _series.computeIfAbsent(key(duoarea, fuelType), k -> load(duoarea, fuelType));
+    }
+
+    /**
+     * The last {@code weeks} weekly prices with a {@code window}-week trailing average.
+     * A duoarea EIA has no series for falls back to the nearest wider region with
+     * stored history, as live prices do; the response names the duoarea used.
+     * @return the history, or null if nothing is stored for the duoarea or any wider region
+     */
+    public PriceHistoryResponse history(String duoarea, String fuelType, int weeks, int window)
+    {
+        PriceSeries series = series(duoarea, fuelType);
+        if (series.size() == 0)
+        {
+            for (Region wider : Region.fallbacks(duoarea))
+            {
+                series = series(wider.getDuoAreaCode(), fuelType);
+                if (series.size() > 0)
+                {
+                    duoarea = wider.getDuoAreaCode();
+                    break;
+                }
+            }
+        }
+        if (series.size() == 0)
+        {
+            return null;
+        }
+        int from = Math.max(0, series.size() - weeks);
+        int count = series.size() - from;
+        String[] periods = new String[count];
+        double[] prices = new double[count];
+        for (int i = 0; i < count; i++)
+        {
+            periods[i] = LocalDate.ofEpochDay(series.epochDay(from + i)).toString();
+            prices[i] = series.price(from + i);
+        }
+        return new PriceHistoryResponse(duoarea, fuelType, window, periods, prices, series.movingAverages(from, window));
+    }
+
+    private PriceSeries load(String duoarea, String fuelType)
+    {
+        List<GasPriceHistoryEntity> rows = _repository.findSeries(duoarea.toUpperCase(Locale.ROOT), fuelType.toUpperCase(Locale.ROOT));
+        long[] days = new long[rows.size()];
+        double[] prices = new double[rows.size()];
+        for (int i = 0; i < rows.size(); i++)
+        {
+            days[i] = rows.get(i).getKey().getPeriod().toEpochDay();
+            prices[i] = rows.get(i).getPrice();
+        }
+        return PriceSeries.EMPTY.append(days, prices, days.length);
+    }
+
+    private static String key(String duoarea, String fuelType)
+    {
+        return duoarea.toUpperCase(Locale.ROOT) + "|" + fuelType.toUpperCase(Locale.ROOT);
+    }
+}
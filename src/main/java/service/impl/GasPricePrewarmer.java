@@ -0,0 +1,83 @@
+package service.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import model.GasPriceQuote;
+import model.Region;
+
+/**
+ * Keeps the gas price cache warm for every Region so request-path lookups are
+ * in-memory reads. One batched EIA query per fuel type covers all regions.
+ * Runs at startup and on Monday/Tuesday evenings (Eastern), when EIA publishes
+ * the weekly update (Tuesday covers holiday-delayed releases). The price history
+ * has its own schedule in {@link GasPriceHistoryRefresher}. Regions EIA has no
+ * series for are cached as "no series" until the next release, which the cache
+ * answers from a wider region.
+ */
+@Component
+public class GasPricePrewarmer
+{
+    private static final Logger log = LoggerFactory.getLogger(GasPricePrewarmer.class);
+
+    private final GetAverageGasPrice _eia;
+    private final CachedGasPriceService _cache;
+    private final List<String> _fuelTypes;
+    private final boolean _enabled;
+
+    public GasPricePrewarmer(GetAverageGasPrice eia, CachedGasPriceService cache,
+                             @Value("${gas.price.prewarm.fuel-types:EPMR,EPMM,EPMP}") String[] fuelTypes,
+                             @Value("${gas.price.prewarm.enabled:true}") boolean enabled)
+    {
+        this._eia = eia;
+        this._cache = cache;
+        this._fuelTypes = Arrays.asList(fuelTypes);
+        this._enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup()
+    {
+        refresh();
+    }
+
+    @Scheduled(cron = "${gas.price.prewarm.cron:0 5/30 17-23 * * MON-TUE}", zone = "America/New_York")
+    public void refresh()
+    {
+        if (!_enabled)
+        {
+            return;
+        }
+
+        List<String> duoareas = Arrays.stream(Region.values()).map(Region::getDuoAreaCode).toList();
+        for (String fuelType : _fuelTypes)
+        {
+            try
+            {
+                Map<String, GasPriceQuote> latest = _eia.getLatestQuotes(duoareas, fuelType);
+                latest.forEach((duoarea, quote) -> _cache.put(duoarea, fuelType, quote));
+                if (latest.size() < duoareas.size())
+                {
+                    log.warn("EIA returned prices for {} of {} regions ({})", latest.size(), duoareas.size(), fuelType);
+                    // Until the next release, lookups fall back to a wider region in memory instead of asking EIA again
+                    duoareas.stream()
+                        .filter(duoarea -> !latest.containsKey(duoarea))
+                        .forEach(duoarea -> _cache.putNoSeries(duoarea, fuelType));
+                }
+            }
+            catch (Exception e)
+            {
+                log.warn("Gas price pre-warm failed for {}: {}", fuelType, e.getMessage());
+            }
+        }
+    }
+}
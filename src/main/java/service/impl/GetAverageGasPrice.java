@@ -1,31 +1,47 @@
 package service.impl;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
+import model.GasPriceQuote;
 import service.api.GasPriceService;
+import service.http.UpstreamHttpClient;
+import service.http.UpstreamMetrics;
 
 @Service
 public class GetAverageGasPrice implements GasPriceService
 {
-    private final HttpClient _httpClient;
+    private static final Logger log = LoggerFactory.getLogger(GetAverageGasPrice.class);
+    private static final String UPSTREAM = "eia";
+
+    private final UpstreamHttpClient _httpClient;
+    private final UpstreamMetrics _metrics;
     private final String eiaApiKey;
 
     private static final String EIA_BASE_URL = "https://api.eia.gov/v2/petroleum/pri/gnd/data/";
 
-    public GetAverageGasPrice(HttpClient httpClient, @Value("${eia.api.key}") String apiKey) 
+    public GetAverageGasPrice(UpstreamHttpClient httpClient, UpstreamMetrics metrics,
+                              @Value("${eia.api.key}") String apiKey) 
     {
         this._httpClient = httpClient;
+        this._metrics = metrics;
         this.eiaApiKey = apiKey;
     }
 
@@ -35,14 +51,114 @@ public class GetAverageGasPrice implements GasPriceService
      */
     @Override
     public double getPrice(String region, String fuelType) throws Exception
+    {
+        return getQuote(region, fuelType).getPrice();
+    }
+
+    /**
+     * Fetch the latest gas price along with the EIA week (period) it belongs to.
+     * @return the quote, with price 0.0 and no period if fetch fails
+     */
+    @Override
+    public GasPriceQuote getQuote(String region, String fuelType) throws Exception
     {
         
         if (eiaApiKey == null || eiaApiKey.isEmpty())
         {
-            System.err.println("ERROR: EIA_API_KEY not found in config.properties or environment");
-            return 0.0;
+            log.error("EIA_API_KEY not found in config.properties or environment");
+            return new GasPriceQuote(0.0, null);
+        }
+
+        return handleResponse(_httpClient.send(UPSTREAM, requestBuilder(region, fuelType)));
+    }
+
+    /**
+     * Non-blocking variant of {@link #getQuote} built on HttpClient.sendAsync.
+     * The body is already in memory when the response arrives, so it is parsed
+     * on the HttpClient thread that delivers it.
+     */
+    @Override
+    public CompletableFuture<GasPriceQuote> getQuoteAsync(String region, String fuelType)
+    {
+        if (eiaApiKey == null || eiaApiKey.isEmpty())
+        {
+            log.error("EIA_API_KEY not found in config.properties or environment");
+            return CompletableFuture.completedFuture(new GasPriceQuote(0.0, null));
         }
 
+        return _httpClient.sendAsync(UPSTREAM, requestBuilder(region, fuelType))
+                .thenApply(response -> {
+                    try
+                    {
+                        return handleResponse(response);
+                    }
+                    catch (IOException e)
+                    {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Fetch the latest price for many duoareas in a single EIA request
+     * (one facets[duoarea] entry per area).
+     * @return latest quote per duoarea code; areas EIA has no data for are absent
+     */
+    public Map<String, GasPriceQuote> getLatestQuotes(Collection<String> duoareas, String fuelType) throws Exception
+    {
+        if (eiaApiKey == null || eiaApiKey.isEmpty())
+        {
+            log.error("EIA_API_KEY not found in config.properties or environment");
+            return Map.of();
+        }
+
+        // A few weeks per area so areas that lag a release still show up
+        int length = Math.max(1, duoareas.size()) * 3;
+        HttpResponse<byte[]> response = _httpClient.send(UPSTREAM, requestBuilder(duoareas, fuelType, length));
+        if (response.statusCode() != 200)
+        {
+            logStatus(response);
+            return Map.of();
+        }
+        return EiaResponseParser.parseLatestByArea(new ByteArrayInputStream(response.body()), duoareas.size());
+    }
+
+    /**
+     * Fetch every weekly price from {@code since} onward for many duoareas in a single request.
+     * @param length maximum rows to return across all areas
+     * @param offset rows to skip, for paging through more than one request's worth
+     * @return rows per duoarea, newest first; empty if the fetch fails
+     */
+    public Map<String, List<GasPriceQuote>> getHistory(Collection<String> duoareas, String fuelType, LocalDate since, int length, int offset) throws Exception
+    {
+        if (eiaApiKey == null || eiaApiKey.isEmpty())
+        {
+            log.error("EIA_API_KEY not found in config.properties or environment");
+            return Map.of();
+        }
+
+        HttpResponse<byte[]> response = _httpClient.send(UPSTREAM, requestBuilder(duoareas, fuelType, length, since, offset));
+        if (response.statusCode() != 200)
+        {
+            logStatus(response);
+            return Map.of();
+        }
+        return EiaResponseParser.parseSeriesByArea(new ByteArrayInputStream(response.body()));
+    }
+
+    // Only the latest row is read; older weeks are kept by GasPriceHistoryService instead
+    private HttpRequest.Builder requestBuilder(String region, String fuelType)
+    {
+        return requestBuilder(Collections.singletonList(region), fuelType, 1, null, 0);
+    }
+
+    private HttpRequest.Builder requestBuilder(Collection<String> duoareas, String fuelType, int length)
+    {
+        return requestBuilder(duoareas, fuelType, length, null, 0);
+    }
+
+    private HttpRequest.Builder requestBuilder(Collection<String> duoareas, String fuelType, int length, LocalDate since, int offset)
+    {
         // Build query parameters for recent weekly data
         // LocalDate endDate = LocalDate.now();
         // LocalDate startDate = endDate.minusDays(30); // Look back 30 days
@@ -52,11 +168,23 @@ public class GetAverageGasPrice implements GasPriceService
         StringBuilder urlBuilder = new StringBuilder(EIA_BASE_URL);
         urlBuilder.append("?frequency=weekly");
         urlBuilder.append("&data[0]=value");
-        urlBuilder.append("&facets[duoarea][0]=").append(region);
+        int facet = 0;
+        for (String duoarea : duoareas)
+        {
+            urlBuilder.append("&facets[duoarea][").append(facet++).append("]=").append(URLEncoder.encode(String.valueOf(duoarea), StandardCharsets.UTF_8));
+        }
         urlBuilder.append("&facets[product][0]=").append(URLEncoder.encode(fuelType, StandardCharsets.UTF_8));
+        if (since != null)
+        {
+            urlBuilder.append("&start=").append(since);
+        }
         urlBuilder.append("&sort[0][column]=period");
         urlBuilder.append("&sort[0][direction]=desc");
-        urlBuilder.append("&length=100");
+        if (offset > 0)
+        {
+            urlBuilder.append("&offset=").append(offset);
+        }
+        urlBuilder.append("&length=").append(length);
         urlBuilder.append("&api_key=").append(URLEncoder.encode(eiaApiKey, StandardCharsets.UTF_8));
 
         String url = urlBuilder.toString();
@@ -64,56 +192,31 @@ public class GetAverageGasPrice implements GasPriceService
         // System.out.println("URL: " + url);
 
         // HttpClient client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
+        return HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header("Accept", "application/json")
-                .GET()
-                .build();
-
-        HttpResponse<String> response = _httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-        if (response.statusCode() != 200)
-        {
-            System.err.println("ERROR: EIA API returned status " + response.statusCode());
-            System.err.println("Response: " + response.body().substring(0, Math.min(200, response.body().length())));
-            return 0.0;
-        }
-
-        return parsePrice(response.body());
+                .GET();
     }
 
-    /**
-     * Parse JSON response and extract the latest gas price.
-     */
-    private double parsePrice(String jsonResponse) throws Exception
+    private GasPriceQuote handleResponse(HttpResponse<byte[]> response) throws IOException
     {
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(jsonResponse);
-
-        JsonNode dataArray = root.path("response").path("data");
-
-        if (!dataArray.isArray() || dataArray.size() == 0)
-        {
-            System.err.println("ERROR: No data found in EIA response");
-            return 0.0;
-        }
-
-        // Get the first (most recent) entry
-        JsonNode latestEntry = dataArray.get(0);
-        JsonNode valueNode = latestEntry.path("value");
-
-        if (valueNode.isNull())
+        if (response.statusCode() != 200)
         {
-            System.err.println("ERROR: Missing price value in EIA response");
-            return 0.0;
+            logStatus(response);
+            return new GasPriceQuote(0.0, null);
         }
 
-        double price = valueNode.asDouble();
-        // String period = latestEntry.path("period").asText();
         // System.out.println("Fetched gas price for " + _region.getDisplayName() + 
         //                    " (" + _gasolineType + ") on " + period + ": $" + price);
+        GasPriceQuote quote = EiaResponseParser.parseLatest(new ByteArrayInputStream(response.body()));
+        _metrics.recordResult(UPSTREAM, quote.getPrice());
+        return quote;
+    }
 
-        return price;
+    private static void logStatus(HttpResponse<byte[]> response)
+    {
+        byte[] body = response.body();
+        log.error("EIA API returned status {}: {}", response.statusCode(), new String(body, 0, Math.min(200, body.length), StandardCharsets.UTF_8));
     }
 
     /**
@@ -1,29 +1,40 @@
 package service.impl;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
+import model.MpgFigures;
 import service.api.CityMpgService;
+import service.http.UpstreamHttpClient;
+import service.http.UpstreamMetrics;
 
 @Service
 public class GetCityMPG implements CityMpgService
 {
-    private final HttpClient _httpClient;
+    private static final Logger log = LoggerFactory.getLogger(GetCityMPG.class);
+    private static final String UPSTREAM = "carapi";
+
+    private final UpstreamHttpClient _httpClient;
+    private final UpstreamMetrics _metrics;
     // Fetch city MPG; fallback to combined MPG if city not available
     // API: https://carapi.app/api/mileages/v2
     // allows for just three parameters: year, make, model
 
 
-    public GetCityMPG(HttpClient httpClient) 
+    public GetCityMPG(UpstreamHttpClient httpClient, UpstreamMetrics metrics) 
     {
         this._httpClient = httpClient;
+        this._metrics = metrics;
     }
 
     @Override
@@ -34,6 +45,45 @@ public class GetCityMPG implements CityMpgService
 
     @Override
     public double getMpg(String make, String model, String year, String submodel) throws Exception
+    {
+        return getMpgFigures(make, model, year, submodel).getCityMpg();
+    }
+
+    // carapi reports city, highway and combined MPG in the same entry, so all three cost one request
+    @Override
+    public MpgFigures getMpgFigures(String make, String model, String year, String submodel) throws Exception
+    {
+        return parseFigures(_httpClient.send(UPSTREAM, requestBuilder(make, model, year)), submodel);
+    }
+
+    /**
+     * Non-blocking variant of {@link #getMpg} built on HttpClient.sendAsync.
+     * The body is already in memory when the response arrives, so it is parsed
+     * on the HttpClient thread that delivers it.
+     */
+    @Override
+    public CompletableFuture<Double> getMpgAsync(String make, String model, String year, String submodel)
+    {
+        return getMpgFiguresAsync(make, model, year, submodel).thenApply(MpgFigures::getCityMpg);
+    }
+
+    @Override
+    public CompletableFuture<MpgFigures> getMpgFiguresAsync(String make, String model, String year, String submodel)
+    {
+        return _httpClient.sendAsync(UPSTREAM, requestBuilder(make, model, year))
+                .thenApply(response -> {
+                    try
+                    {
+                        return parseFigures(response, submodel);
+                    }
+                    catch (IOException e)
+                    {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private HttpRequest.Builder requestBuilder(String make, String model, String year)
     {
         String url = "https://carapi.app/api/mileages/v2?year=" + year +
                 "&make=" + make +
@@ -41,68 +91,23 @@ public class GetCityMPG implements CityMpgService
 
         // HttpClient client = HttpClient.newHttpClient();
 
-        HttpRequest request = HttpRequest.newBuilder()
+        return HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header("Accept", "application/json")
-                .GET()
-                .build();
-
-        HttpResponse<String> response = _httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(response.body());
-
-        // Response structure: { "data": [...], "collection": {...} }
-        JsonNode dataArray = root.has("data") ? root.get("data") : root;
-
-        // Validate data array
-        if (!dataArray.isArray() || dataArray.size() == 0)
-        {
-            return 0.00;
-        }
-
-        JsonNode carNode = null;
-
-        // If submodel specified, find exact match; otherwise use first result
-        if (submodel != null && !submodel.isEmpty())
-        {
-            for (int i = 0; i < dataArray.size(); i++)
-            {
-                JsonNode node = dataArray.get(i);
-                if (node.has("submodel") && submodel.equalsIgnoreCase(node.get("submodel").asText()))
-                {
-                    carNode = node;
-                    break;
-                }
-            }
-        }
-
-        // Fall back to first result if submodel not specified or not found
-        if (carNode == null)
-        {
-            carNode = dataArray.get(0);
-        }
-
-        // Try city MPG first, fall back to combined
-        if (carNode.has("epa_city_mpg"))
-        {
-            JsonNode cityMpg = carNode.get("epa_city_mpg");
-            if (!cityMpg.isNull())
-            {
-                return cityMpg.asDouble();
-            }
-        }
+                .GET();
+    }
 
-        // Fall back to combined MPG
-        if (carNode.has("combined_mpg"))
+    // Only a 2xx body is an answer; a 429, a 5xx or an error page is a failure the cache must not keep
+    private MpgFigures parseFigures(HttpResponse<byte[]> response, String submodel) throws IOException
+    {
+        byte[] body = response.body();
+        if (response.statusCode() / 100 != 2)
         {
-            JsonNode combinedMpg = carNode.get("combined_mpg");
-            if (!combinedMpg.isNull())
-            {
-                return combinedMpg.asDouble();
-            }
+            log.error("carapi returned status {}: {}", response.statusCode(), new String(body, 0, Math.min(200, body.length), StandardCharsets.UTF_8));
+            throw new IOException("carapi returned status " + response.statusCode());
         }
-
-        return 0.00;
+        MpgFigures figures = CarApiResponseParser.parseFigures(new ByteArrayInputStream(body), submodel);
+        _metrics.recordResult(UPSTREAM, figures.getCityMpg());
+        return figures;
     }
 }
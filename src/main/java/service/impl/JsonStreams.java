@@ -0,0 +1,60 @@
+package service.impl;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Small helpers shared by the streaming upstream response parsers.
+ */
+final class JsonStreams
+{
+    private JsonStreams() {}
+
+    /**
+     * Advance through the current object until the named field, skipping other values.
+     * Expects the parser to be positioned before (or at) the object's START_OBJECT.
+     */
+    static boolean moveToField(JsonParser parser, String name) throws IOException
+    {
+        JsonToken token = parser.currentToken() == null ? parser.nextToken() : parser.currentToken();
+        if (token == JsonToken.START_OBJECT)
+        {
+            token = parser.nextToken();
+        }
+        while (token == JsonToken.FIELD_NAME)
+        {
+            if (name.equals(parser.currentName()))
+            {
+                return true;
+            }
+            parser.nextToken();
+            parser.skipChildren();
+            token = parser.nextToken();
+        }
+        return false;
+    }
+
+    // Upstreams send numbers as either JSON numbers or strings; null means no value
+    static Double readDouble(JsonParser parser, JsonToken token) throws IOException
+    {
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT)
+        {
+            return parser.getDoubleValue();
+        }
+        if (token == JsonToken.VALUE_STRING)
+        {
+            try
+            {
+                return Double.parseDouble(parser.getText().trim());
+            }
+            catch (NumberFormatException e)
+            {
+                return 0.0;
+            }
+        }
+        parser.skipChildren();
+        return null;
+    }
+}
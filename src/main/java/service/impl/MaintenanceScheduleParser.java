@@ -0,0 +1,63 @@
+package service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import model.MaintenanceCosts;
+import model.MaintenanceSchedule;
+
+/**
+ * Builds the {@link MaintenanceSchedule} from the maintenance.items property.
+ */
+public final class MaintenanceScheduleParser
+{
+    private static final Logger log = LoggerFactory.getLogger(MaintenanceScheduleParser.class);
+
+    private MaintenanceScheduleParser() {}
+
+    /**
+     * @param items comma-separated "name:cost:intervalMiles" entries, e.g. "Tires:800:50000,Brakes:300:40000";
+     *              malformed entries and non-positive intervals are skipped with a warning
+     */
+    public static MaintenanceSchedule parse(MaintenanceCosts oil, String items)
+    {
+        List<String> names = new ArrayList<>();
+        List<MaintenanceCosts> costs = new ArrayList<>();
+        if (items != null)
+        {
+            for (String item : items.split(","))
+            {
+                if (item.isBlank())
+                {
+                    continue;
+                }
+                String[] parts = item.split(":");
+                if (parts.length != 3)
+                {
+                    log.warn("Skipping maintenance item '{}' (expected name:cost:intervalMiles)", item);
+                    continue;
+                }
+                try
+                {
+                    double cost = Double.parseDouble(parts[1].trim());
+                    int interval = Integer.parseInt(parts[2].trim());
+                    if (interval <= 0)
+                    {
+                        log.warn("Skipping maintenance item '{}': interval must be positive", item);
+                        continue;
+                    }
+                    names.add(parts[0].trim());
+                    costs.add(new MaintenanceCosts(cost, interval));
+                }
+                catch (NumberFormatException e)
+                {
+                    log.warn("Skipping maintenance item '{}': {}", item, e.getMessage());
+                }
+            }
+        }
+        return MaintenanceSchedule.of(oil, names, costs);
+    }
+}
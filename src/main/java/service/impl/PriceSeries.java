@@ -0,0 +1,103 @@
+package service.impl;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of one (duoarea, product) weekly price series, stored column-wise:
+ * periods as epoch days in ascending order alongside their prices.
+ * {@link #append} returns a new snapshot that shares the arrays when they have room,
+ * writing only past this snapshot's size, so existing readers are unaffected. That
+ * makes appends cheap but only safe from a single writer that always appends to the
+ * latest snapshot.
+ */
+public final class PriceSeries
+{
+    public static final PriceSeries EMPTY = new PriceSeries(new long[0], new double[0], 0);
+
+    private final long[] _epochDays;
+    private final double[] _prices;
+    private final int _size;
+
+    private PriceSeries(long[] epochDays, double[] prices, int size)
+    {
+        this._epochDays = epochDays;
+        this._prices = prices;
+        this._size = size;
+    }
+
+    /**
+     * @param epochDays periods in ascending order, all after {@link #lastEpochDay()}
+     */
+    public PriceSeries append(long[] epochDays, double[] prices, int count)
+    {
+        if (count == 0)
+        {
+            return this;
+        }
+        if (epochDays[0] <= lastEpochDay())
+        {
+            throw new IllegalArgumentException("Periods must be appended in ascending order");
+        }
+        long[] days = _epochDays;
+        double[] values = _prices;
+        int needed = _size + count;
+        if (needed > days.length)
+        {
+            int capacity = Math.max(needed, days.length * 2);
+            days = Arrays.copyOf(days, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        System.arraycopy(epochDays, 0, days, _size, count);
+        System.arraycopy(prices, 0, values, _size, count);
+        return new PriceSeries(days, values, needed);
+    }
+
+    public int size() { return _size; }
+    public long epochDay(int index) { return _epochDays[index]; }
+    public double price(int index) { return _prices[index]; }
+
+    /** Latest period as an epoch day, or Long.MIN_VALUE for an empty series. */
+    public long lastEpochDay()
+    {
+        return _size == 0 ? Long.MIN_VALUE : _epochDays[_size - 1];
+    }
+
+    /** First index whose period is on or after the given epoch day (size() if none). */
+    public int indexOnOrAfter(long epochDay)
+    {
+        int lo = 0;
+        int hi = _size;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (_epochDays[mid] < epochDay) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Trailing moving average for every index from {@code from} to the end, over up to
+     * {@code window} weeks; weeks before {@code from} count toward the first averages.
+     * One running sum, so O(size - from + window) regardless of the window.
+     */
+    public double[] movingAverages(int from, int window)
+    {
+        double[] averages = new double[_size - from];
+        int start = Math.max(0, from - window + 1);
+        double sum = 0;
+        for (int i = start; i < _size; i++)
+        {
+            sum += _prices[i];
+            if (i - start >= window)
+            {
+                sum -= _prices[i - window];
+            }
+            if (i >= from)
+            {
+                averages[i - from] = sum / Math.min(window, i - start + 1);
+            }
+        }
+        return averages;
+    }
+}
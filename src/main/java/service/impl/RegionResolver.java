@@ -0,0 +1,271 @@
+package service.impl;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+
+import model.Region;
+
+/**
+ * Resolves a location to the most local region EIA publishes a price for.
+ * A location may be an EIA duoarea code ("SCA", any case), a state abbreviation
+ * ("GA"), a ZIP code ("30301" or ZIP+4) or "latitude,longitude".
+ * A state resolves to its own EIA series when there is one, otherwise to the
+ * narrowest PADD region it lies in.
+ * A ZIP resolves to the metro its 3-digit prefix belongs to, otherwise to its state.
+ * Coordinates resolve to a metro within METRO_RADIUS_MILES, otherwise to the state
+ * whose center is nearest (approximate near state borders).
+ * All tables are built once, so text input resolves with a map or array lookup.
+ */
+@Service
+public class RegionResolver
+{
+    static final double METRO_RADIUS_MILES = 50.0;
+    // Farther than this from every state center is not in the U.S.
+    private static final double MAX_STATE_DISTANCE_MILES = 1000.0;
+    private static final double EARTH_RADIUS_MILES = 3958.8;
+
+    // Abbreviation, narrowest PADD region, center and USPS 3-digit ZIP prefixes for the 50 states and DC
+    private static final StateInfo[] STATES = {
+        new StateInfo("AL", Region.PADD_3, 32.8, -86.8, "350-369"),
+        new StateInfo("AK", Region.PADD_5_EXCEPT_CA, 64.7, -152.0, "995-999"),
+        new StateInfo("AZ", Region.PADD_5_EXCEPT_CA, 34.3, -111.7, "850-865"),
+        new StateInfo("AR", Region.PADD_3, 34.9, -92.4, "716-729"),
+        new StateInfo("CA", Region.PADD_5, 37.2, -119.5, "900-961"),
+        new StateInfo("CO", Region.PADD_4, 39.0, -105.5, "800-816"),
+        new StateInfo("CT", Region.PADD_1A, 41.6, -72.7, "060-069"),
+        new StateInfo("DE", Region.PADD_1B, 39.0, -75.5, "197-199"),
+        new StateInfo("DC", Region.PADD_1B, 38.9, -77.0, "200,202-205,569"),
+        new StateInfo("FL", Region.PADD_1C, 28.6, -82.4, "320-349"),
+        new StateInfo("GA", Region.PADD_1C, 32.7, -83.4, "300-319,398-399"),
+        new StateInfo("HI", Region.PADD_5_EXCEPT_CA, 20.8, -156.3, "967-968"),
+        new StateInfo("ID", Region.PADD_4, 44.4, -114.6, "832-838"),
+        new StateInfo("IL", Region.PADD_2, 40.0, -89.2, "600-629"),
+        new StateInfo("IN", Region.PADD_2, 39.9, -86.3, "460-479"),
+        new StateInfo("IA", Region.PADD_2, 42.1, -93.5, "500-528"),
+        new StateInfo("KS", Region.PADD_2, 38.5, -98.4, "660-679"),
+        new StateInfo("KY", Region.PADD_2, 37.5, -85.3, "400-427"),
+        new StateInfo("LA", Region.PADD_3, 31.1, -92.0, "700-714"),
+        new StateInfo("ME", Region.PADD_1A, 45.4, -69.2, "039-049"),
+        new StateInfo("MD", Region.PADD_1B, 39.0, -76.8, "206-219"),
+        new StateInfo("MA", Region.PADD_1A, 42.3, -71.8, "010-027,055"),
+        new StateInfo("MI", Region.PADD_2, 44.3, -85.4, "480-499"),
+        new StateInfo("MN", Region.PADD_2, 46.3, -94.3, "550-567"),
+        new StateInfo("MS", Region.PADD_3, 32.7, -89.7, "386-397"),
+        new StateInfo("MO", Region.PADD_2, 38.4, -92.5, "630-658"),
+        new StateInfo("MT", Region.PADD_4, 47.0, -109.6, "590-599"),
+        new StateInfo("NE", Region.PADD_2, 41.5, -99.8, "680-693"),
+        new StateInfo("NV", Region.PADD_5_EXCEPT_CA, 39.3, -116.6, "889-898"),
+        new StateInfo("NH", Region.PADD_1A, 43.7, -71.6, "030-038"),
+        new StateInfo("NJ", Region.PADD_1B, 40.2, -74.7, "070-089"),
+        new StateInfo("NM", Region.PADD_3, 34.4, -106.1, "870-884"),
+        new StateInfo("NY", Region.PADD_1B, 42.9, -75.5, "005,100-149"),
+        new StateInfo("NC", Region.PADD_1C, 35.6, -79.4, "270-289"),
+        new StateInfo("ND", Region.PADD_2, 47.5, -100.5, "580-588"),
+        new StateInfo("OH", Region.PADD_2, 40.3, -82.8, "430-459"),
+        new StateInfo("OK", Region.PADD_2, 35.6, -97.5, "730-731,734-749"),
+        new StateInfo("OR", Region.PADD_5_EXCEPT_CA, 43.9, -120.6, "970-979"),
+        new StateInfo("PA", Region.PADD_1B, 40.9, -77.8, "150-196"),
+        new StateInfo("RI", Region.PADD_1A, 41.7, -71.5, "028-029"),
+        new StateInfo("SC", Region.PADD_1C, 33.9, -80.9, "290-299"),
+        new StateInfo("SD", Region.PADD_2, 44.4, -100.2, "570-577"),
+        new StateInfo("TN", Region.PADD_2, 35.9, -86.4, "370-385"),
+        new StateInfo("TX", Region.PADD_3, 31.5, -99.3, "733,750-799,885"),
+        new StateInfo("UT", Region.PADD_4, 39.3, -111.7, "840-847"),
+        new StateInfo("VT", Region.PADD_1A, 44.1, -72.7, "050-054,056-059"),
+        new StateInfo("VA", Region.PADD_1C, 37.5, -78.9, "201,220-246"),
+        new StateInfo("WA", Region.PADD_5_EXCEPT_CA, 47.4, -120.5, "980-994"),
+        new StateInfo("WV", Region.PADD_1C, 38.6, -80.6, "247-268"),
+        new StateInfo("WI", Region.PADD_2, 44.6, -89.9, "530-549"),
+        new StateInfo("WY", Region.PADD_4, 43.0, -107.6, "820-831"),
+    };
+
+    // 3-digit ZIP prefixes inside each EIA metro area
+    private static final Map<Region, String> METRO_ZIPS = new EnumMap<>(Map.of(
+        Region.HOUSTON, "770-775",
+        Region.LOS_ANGELES, "900-918",
+        Region.SAN_FRANCISCO, "940-951",
+        Region.NEW_YORK_METRO, "070-076,100-119",
+        Region.CHICAGO, "600-608",
+        Region.DENVER, "800-803",
+        Region.BOSTON, "018-024",
+        Region.CLEVELAND, "440-442",
+        Region.MIAMI, "330-333",
+        Region.SEATTLE, "980-981,983-984"));
+
+    private final Map<String, Region> _byState = new HashMap<>();
+    private final Region[] _byZipPrefix = new Region[1000];
+    private final Region[] _metros;
+
+    public RegionResolver()
+    {
+        Map<String, Region> stateSeries = new HashMap<>();
+        for (Region region : Region.values())
+        {
+            if (region.isState())
+            {
+                stateSeries.put(region.getState(), region);
+            }
+        }
+        for (StateInfo state : STATES)
+        {
+            Region region = stateSeries.getOrDefault(state.abbreviation, state.padd);
+            _byState.put(state.abbreviation, region);
+            fill(_byZipPrefix, state.zipPrefixes, region);
+        }
+        // Metros override their state, so they are filled last
+        METRO_ZIPS.forEach((metro, prefixes) -> fill(_byZipPrefix, prefixes, metro));
+
+        _metros = METRO_ZIPS.keySet().toArray(new Region[0]);
+    }
+
+    /**
+     * @return the most local region for the location, or null if it is not recognized
+     */
+    public Region resolve(String location)
+    {
+        if (location == null || location.isBlank())
+        {
+            return null;
+        }
+        String trimmed = location.trim();
+
+        Region byCode = Region.find(trimmed);
+        if (byCode != null)
+        {
+            return byCode;
+        }
+        if (trimmed.length() == 2)
+        {
+            return forState(trimmed);
+        }
+        if (isZip(trimmed))
+        {
+            return forZip(trimmed);
+        }
+        int comma = trimmed.indexOf(',');
+        if (comma > 0)
+        {
+            try
+            {
+                double latitude = Double.parseDouble(trimmed.substring(0, comma).trim());
+                double longitude = Double.parseDouble(trimmed.substring(comma + 1).trim());
+                return nearest(latitude, longitude);
+            }
+            catch (NumberFormatException e)
+            {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * DuoArea code for the location; input that is not recognized is returned unchanged,
+     * so a code EIA knows but this enum does not still reaches EIA.
+     */
+    public String resolveCode(String location)
+    {
+        Region region = resolve(location);
+        return region != null ? region.getDuoAreaCode() : location;
+    }
+
+    public Region forState(String abbreviation)
+    {
+        return abbreviation == null ? null : _byState.get(abbreviation.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public Region forZip(String zip)
+    {
+        if (zip == null || !isZip(zip.trim()))
+        {
+            return null;
+        }
+        return _byZipPrefix[Integer.parseInt(zip.trim().substring(0, 3))];
+    }
+
+    public Region nearest(double latitude, double longitude)
+    {
+        if (latitude < -90.0 || latitude > 90.0 || longitude < -180.0 || longitude > 180.0)
+        {
+            return null;
+        }
+        Region metro = null;
+        double metroDistance = METRO_RADIUS_MILES;
+        for (Region candidate : _metros)
+        {
+            double distance = distanceMiles(latitude, longitude, candidate.getLatitude(), candidate.getLongitude());
+            if (distance <= metroDistance)
+            {
+                metro = candidate;
+                metroDistance = distance;
+            }
+        }
+        if (metro != null)
+        {
+            return metro;
+        }
+
+        StateInfo closest = null;
+        double closestDistance = MAX_STATE_DISTANCE_MILES;
+        for (StateInfo state : STATES)
+        {
+            double distance = distanceMiles(latitude, longitude, state.latitude, state.longitude);
+            if (distance <= closestDistance)
+            {
+                closest = state;
+                closestDistance = distance;
+            }
+        }
+        return closest == null ? null : _byState.get(closest.abbreviation);
+    }
+
+    // Great-circle distance (haversine)
+    static double distanceMiles(double lat1, double lon1, double lat2, double lon2)
+    {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_MILES * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    // "12345" or ZIP+4 "12345-6789"
+    private static boolean isZip(String value)
+    {
+        if (value.length() != 5 && value.length() != 10)
+        {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            boolean expected = i == 5 ? c == '-' : c >= '0' && c <= '9';
+            if (!expected)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Prefixes as "350-369,398"
+    private static void fill(Region[] byPrefix, String prefixes, Region region)
+    {
+        for (String range : prefixes.split(","))
+        {
+            int dash = range.indexOf('-');
+            int from = Integer.parseInt(dash < 0 ? range : range.substring(0, dash));
+            int to = dash < 0 ? from : Integer.parseInt(range.substring(dash + 1));
+            for (int prefix = from; prefix <= to; prefix++)
+            {
+                byPrefix[prefix] = region;
+            }
+        }
+    }
+
+    private record StateInfo(String abbreviation, Region padd, double latitude, double longitude, String zipPrefixes) {}
+}
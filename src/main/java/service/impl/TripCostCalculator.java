@@ -0,0 +1,190 @@
+package service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import model.FuelCosts;
+import model.Region;
+import model.TripCost;
+import model.TripCostSummary;
+import service.api.GasPriceService;
+
+/**
+ * Prices a CSV trip log (date, miles, region) for one vehicle.
+ * The file is read a line at a time and each trip is handed to the sink as soon as it
+ * is priced, so memory stays bounded however long the log is. A trip is priced at its
+ * region's EIA price for the week it falls in, from the stored price history; trips
+ * outside the stored history use the region's current (cached) price. Prices are
+ * looked up once per region per upload. A region may be anything {@link RegionResolver}
+ * accepts; a trip whose region is blank or unrecognized is counted as skipped rather
+ * than priced somewhere it may not have been driven. A trip with no history and no
+ * current price is counted as unpriced and left out of the totals, rather than costed at zero.
+ */
+@Service
+public class TripCostCalculator
+{
+    private static final Logger log = LoggerFactory.getLogger(TripCostCalculator.class);
+
+    public interface TripSink
+    {
+        void accept(TripCost trip) throws IOException;
+    }
+
+    private final GasPriceHistoryService _history;
+    private final GasPriceService _gasService;
+    private final RegionResolver _regions;
+
+    public TripCostCalculator(GasPriceHistoryService history, GasPriceService gasService, RegionResolver regions)
+    {
+        this._history = history;
+        this._gasService = gasService;
+        this._regions = regions;
+    }
+
+    /**
+     * A header row naming date, miles and region columns (any order, any case) is optional;
+     * without one the columns are taken in that order. Lines that do not parse are skipped.
+     */
+    public TripCostSummary calculate(Reader csv, double cityMpg, String fuelType, TripSink sink) throws IOException
+    {
+        BufferedReader reader = csv instanceof BufferedReader buffered ? buffered : new BufferedReader(csv);
+        Map<Region, PriceSeries> history = new EnumMap<>(Region.class);
+        Map<Region, Double> currentPrices = new EnumMap<>(Region.class);
+
+        int dateColumn = 0;
+        int milesColumn = 1;
+        int regionColumn = 2;
+        long lineNumber = 0;
+        boolean firstRow = true;
+        long trips = 0;
+        long skipped = 0;
+        long unpriced = 0;
+        double totalMiles = 0.0;
+        double totalCost = 0.0;
+
+        String line;
+        while ((line = reader.readLine()) != null)
+        {
+            lineNumber++;
+            if (line.isBlank())
+            {
+                continue;
+            }
+            List<String> fields = CsvLines.split(line);
+            boolean header = firstRow && isHeader(fields);
+            firstRow = false;
+            if (header)
+            {
+                dateColumn = indexOf(fields, "date", dateColumn);
+                milesColumn = indexOf(fields, "miles", milesColumn);
+                regionColumn = indexOf(fields, "region", regionColumn);
+                continue;
+            }
+
+            LocalDate date;
+            double miles;
+            Region region;
+            try
+            {
+                date = LocalDate.parse(fields.get(dateColumn).trim());
+                miles = Double.parseDouble(fields.get(milesColumn).trim());
+                region = _regions.resolve(fields.get(regionColumn));
+            }
+            catch (RuntimeException e) // Missing column, bad date or bad number
+            {
+                skipped++;
+                continue;
+            }
+            if (region == null || miles < 0 || Double.isNaN(miles) || Double.isInfinite(miles))
+            {
+                skipped++;
+                continue;
+            }
+
+            Double gasPrice = priceFor(region, fuelType, date, history, currentPrices);
+            if (gasPrice == null)
+            {
+                unpriced++;
+                continue;
+            }
+            double cost = new FuelCosts(gasPrice).costPerMile(cityMpg) * miles;
+            sink.accept(new TripCost(lineNumber, date.toString(), miles, region.getDuoAreaCode(), gasPrice, cost));
+            trips++;
+            totalMiles += miles;
+            totalCost += cost;
+        }
+        return new TripCostSummary(trips, skipped, unpriced, totalMiles, totalCost);
+    }
+
+    // Price of the latest EIA week starting on or before the date, else the current price; null when neither exists
+    private Double priceFor(Region region, String fuelType, LocalDate date,
+                            Map<Region, PriceSeries> history, Map<Region, Double> currentPrices)
+    {
+        PriceSeries series = history.computeIfAbsent(region, r -> _history.series(r.getDuoAreaCode(), fuelType));
+        int week = series.indexOnOrAfter(date.toEpochDay() + 1) - 1;
+        if (week >= 0 && date.toEpochDay() - series.epochDay(week) < 7)
+        {
+            return series.price(week);
+        }
+        // containsKey, not computeIfAbsent: a region with no price is remembered as null and not asked again
+        if (!currentPrices.containsKey(region))
+        {
+            currentPrices.put(region, currentPrice(region, fuelType));
+        }
+        return currentPrices.get(region);
+    }
+
+    private Double currentPrice(Region region, String fuelType)
+    {
+        try
+        {
+            double price = _gasService.getPrice(region.getDuoAreaCode(), fuelType);
+            if (price > 0.0)
+            {
+                return price;
+            }
+            log.warn("No gas price for {} {}", region.getDuoAreaCode(), fuelType);
+        }
+        catch (Exception e)
+        {
+            log.warn("No gas price for {} {}: {}", region.getDuoAreaCode(), fuelType, e.getMessage());
+        }
+        return null;
+    }
+
+    private static boolean isHeader(List<String> fields)
+    {
+        for (String field : fields)
+        {
+            String name = field.trim().toLowerCase(Locale.ROOT);
+            if (name.equals("date") || name.equals("miles") || name.equals("region"))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int indexOf(List<String> header, String name, int fallback)
+    {
+        for (int i = 0; i < header.size(); i++)
+        {
+            if (header.get(i).trim().equalsIgnoreCase(name))
+            {
+                return i;
+            }
+        }
+        return fallback;
+    }
+}
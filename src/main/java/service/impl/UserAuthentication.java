@@ -1,31 +1,73 @@
 package service.impl;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import entity.UserEntity;
 import repository.UserRepository;
+import service.cache.LruCache;
 
+/**
+ * Loads users for Spring Security by email. Found users are cached for a short TTL
+ * so repeated authentications skip the database; callers that change a user's
+ * credentials must {@link #evict} them. Unknown emails are not cached.
+ * The cache holds an immutable copy of the id, email and password hash, never the
+ * entity itself: each authentication gets its own detached UserEntity built from it,
+ * so a caller changing its principal cannot change what the next login sees.
+ */
 @Service
 public class UserAuthentication implements UserDetailsService {
 
-    @Autowired
     private final UserRepository _userRepository;
+    private final LruCache<String, CachedUser> _cache;
+    private final Duration _ttl;
+    private final Clock _clock;
+
+    @Autowired
+    public UserAuthentication(UserRepository userRepository,
+                              @Value("${auth.user-cache.max-entries:10000}") int maxEntries,
+                              @Value("${auth.user-cache.ttl:5m}") Duration ttl) {
+        this(userRepository, maxEntries, ttl, Clock.systemUTC());
+    }
 
-    public UserAuthentication(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder) {
+    public UserAuthentication(UserRepository userRepository, int maxEntries, Duration ttl, Clock clock) {
         this._userRepository = userRepository;
+        this._cache = new LruCache<>(maxEntries);
+        this._ttl = ttl;
+        this._clock = clock;
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        UserEntity userEntity = _userRepository.findByEmail(email)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
-        
-            return userEntity;
-        
+        Instant now = _clock.instant();
+        CachedUser cached = _cache.get(email);
+        if (cached == null || !now.isBefore(cached.expiresAt)) {
+            UserEntity userEntity = _userRepository.findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+            cached = new CachedUser(userEntity.getUserId(), userEntity.getUsername(), userEntity.getPassword(), now.plus(_ttl));
+            _cache.put(email, cached);
+        }
+        return cached.toUser();
+    }
+
+    /** Drops a cached user; call it wherever a user's email or password is saved. */
+    public void evict(String email) {
+        _cache.remove(email);
+    }
+
+    private record CachedUser(Long userId, String email, String passwordHash, Instant expiresAt) {
+        UserEntity toUser() {
+            UserEntity user = new UserEntity(email, passwordHash);
+            user.setUserId(userId);
+            return user;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,293 @@
+package service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Every valid year / make / model / submodel combination in the EPA dataset, for
+ * autocomplete and for rejecting typos before they cost an upstream call.
+ * Makes, models and submodels are interned into sorted string tables so a string's
+ * int id orders the same way as the string; the combinations are one sorted row per
+ * entry in parallel primitive columns. A prefix becomes a contiguous id range, and a
+ * year/make/model becomes a contiguous row range, so every query is a few binary
+ * searches plus a scan of the matching rows.
+ * Names are compared in {@link EpaFuelEconomyIndex#normalize} form (case and
+ * punctuation ignored) and returned in EPA's spelling.
+ */
+public final class VehicleCatalog
+{
+    private final String[] _makeKeys;
+    private final String[] _makeNames;
+    private final String[] _modelKeys;
+    private final String[] _modelNames;
+    private final String[] _submodelKeys;
+    private final String[] _submodelNames;
+
+    // One row per distinct combination, sorted by year, make, model, submodel
+    private final short[] _years;
+    private final int[] _makes;
+    private final int[] _models;
+    private final int[] _submodels;
+
+    private VehicleCatalog(StringTable makes, StringTable models, StringTable submodels, int[][] rows)
+    {
+        this._makeKeys = makes.keys;
+        this._makeNames = makes.names;
+        this._modelKeys = models.keys;
+        this._modelNames = models.names;
+        this._submodelKeys = submodels.keys;
+        this._submodelNames = submodels.names;
+        this._years = new short[rows.length];
+        this._makes = new int[rows.length];
+        this._models = new int[rows.length];
+        this._submodels = new int[rows.length];
+        for (int i = 0; i < rows.length; i++)
+        {
+            _years[i] = (short) rows[i][0];
+            _makes[i] = rows[i][1];
+            _models[i] = rows[i][2];
+            _submodels[i] = rows[i][3];
+        }
+    }
+
+    public static VehicleCatalog from(EpaFuelEconomyIndex index)
+    {
+        StringTable makes = new StringTable();
+        StringTable models = new StringTable();
+        StringTable submodels = new StringTable();
+        for (int row = 0; row < index.size(); row++)
+        {
+            makes.add(index.make(row));
+            models.add(index.baseModel(row));
+            submodels.add(index.submodel(row));
+        }
+        makes.freeze();
+        models.freeze();
+        submodels.freeze();
+
+        int[][] rows = new int[index.size()][];
+        for (int row = 0; row < index.size(); row++)
+        {
+            rows[row] = new int[] { index.year(row), makes.id(index.make(row)), models.id(index.baseModel(row)), submodels.id(index.submodel(row)) };
+        }
+        Arrays.sort(rows, (a, b) -> Arrays.compare(a, b));
+
+        int distinct = 0;
+        for (int i = 0; i < rows.length; i++)
+        {
+            if (distinct == 0 || !Arrays.equals(rows[distinct - 1], rows[i]))
+            {
+                rows[distinct++] = rows[i];
+            }
+        }
+        return new VehicleCatalog(makes, models, submodels, Arrays.copyOf(rows, distinct));
+    }
+
+    public int size()
+    {
+        return _years.length;
+    }
+
+    /** Model years, newest first, starting with the prefix. */
+    public List<String> years(String prefix, int limit)
+    {
+        List<String> result = new ArrayList<>();
+        String wanted = prefix == null ? "" : prefix.trim();
+        int i = _years.length - 1;
+        while (i >= 0 && result.size() < limit)
+        {
+            short year = _years[i];
+            String text = Short.toString(year);
+            if (text.startsWith(wanted))
+            {
+                result.add(text);
+            }
+            i = lowerBound(_years, 0, i + 1, year) - 1;
+        }
+        return result;
+    }
+
+    public List<String> makes(String year, String prefix, int limit)
+    {
+        int[] range = yearRange(year);
+        return distinctWithPrefix(_makes, range[0], range[1], _makeKeys, _makeNames, prefix, limit);
+    }
+
+    public List<String> models(String year, String make, String prefix, int limit)
+    {
+        int[] range = narrow(yearRange(year), _makes, _makeKeys, make);
+        return distinctWithPrefix(_models, range[0], range[1], _modelKeys, _modelNames, prefix, limit);
+    }
+
+    public List<String> submodels(String year, String make, String model, String prefix, int limit)
+    {
+        int[] range = narrow(narrow(yearRange(year), _makes, _makeKeys, make), _models, _modelKeys, model);
+        List<String> result = distinctWithPrefix(_submodels, range[0], range[1], _submodelKeys, _submodelNames, prefix, limit);
+        result.remove(""); // The base model is not a submodel
+        return result;
+    }
+
+    /**
+     * True if the dataset has the year/make/model, where the model may be EPA's base
+     * model ("Camry") or base model plus submodel ("Camry Hybrid LE").
+     */
+    public boolean contains(String year, String make, String model)
+    {
+        int[] range = narrow(yearRange(year), _makes, _makeKeys, make);
+        if (range[0] == range[1])
+        {
+            return false;
+        }
+        int[] baseModel = narrow(range, _models, _modelKeys, model);
+        if (baseModel[0] < baseModel[1])
+        {
+            return true;
+        }
+        String wanted = EpaFuelEconomyIndex.normalize(model);
+        for (int i = range[0]; i < range[1]; i++)
+        {
+            if ((_modelKeys[_models[i]] + _submodelKeys[_submodels[i]]).equals(wanted))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rejects a vehicle the dataset does not know with 400, before any upstream call is spent on it.
+     * Submodels are not checked: carapi trim names (e.g. "LE") often differ from EPA's.
+     */
+    public void requireKnown(String year, String make, String model)
+    {
+        if (!contains(year, make, model))
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, unknownVehicle(year, make, model));
+        }
+    }
+
+    /** The reason given for a vehicle the dataset does not know, in a 400 or a batch item's error. */
+    public static String unknownVehicle(String year, String make, String model)
+    {
+        return "Unknown vehicle: " + year + " " + make + " " + model;
+    }
+
+    private int[] yearRange(String year)
+    {
+        short parsed;
+        try
+        {
+            parsed = year == null ? -1 : Short.parseShort(year.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            return new int[] { 0, 0 };
+        }
+        return new int[] { lowerBound(_years, 0, _years.length, parsed), lowerBound(_years, 0, _years.length, (short) (parsed + 1)) };
+    }
+
+    // Rows in range whose column holds exactly the id of name; rows are sorted by that column within the range
+    private static int[] narrow(int[] range, int[] column, String[] keys, String name)
+    {
+        int id = Arrays.binarySearch(keys, EpaFuelEconomyIndex.normalize(name));
+        if (id < 0 || range[0] == range[1])
+        {
+            return new int[] { range[0], range[0] };
+        }
+        return new int[] { lowerBound(column, range[0], range[1], id), lowerBound(column, range[0], range[1], id + 1) };
+    }
+
+    private static List<String> distinctWithPrefix(int[] column, int from, int to, String[] keys, String[] names, String prefix, int limit)
+    {
+        List<String> result = new ArrayList<>();
+        String wanted = EpaFuelEconomyIndex.normalize(prefix);
+        // Ids that start with the prefix are contiguous because the table is sorted
+        int firstId = lowerBound(keys, wanted);
+        int endId = lowerBound(keys, wanted + Character.MAX_VALUE);
+
+        int i = lowerBound(column, from, to, firstId);
+        while (i < to && column[i] < endId && result.size() < limit)
+        {
+            int id = column[i];
+            result.add(names[id]);
+            i = lowerBound(column, i, to, id + 1);
+        }
+        return result;
+    }
+
+    private static int lowerBound(int[] column, int from, int to, int value)
+    {
+        int lo = from;
+        int hi = to;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (column[mid] < value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int lowerBound(short[] column, int from, int to, short value)
+    {
+        int lo = from;
+        int hi = to;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (column[mid] < value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int lowerBound(String[] keys, String value)
+    {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(value) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Sorted, de-duplicated names keyed by normalized form; used only while building
+    private static final class StringTable
+    {
+        private final Map<String, String> byKey = new TreeMap<>();
+        private Map<String, Integer> ids;
+        private String[] keys;
+        private String[] names;
+
+        private void add(String name)
+        {
+            byKey.putIfAbsent(EpaFuelEconomyIndex.normalize(name), name);
+        }
+
+        private void freeze()
+        {
+            keys = byKey.keySet().toArray(new String[0]);
+            names = byKey.values().toArray(new String[0]);
+            ids = new HashMap<>(keys.length * 4 / 3 + 1);
+            for (int i = 0; i < keys.length; i++)
+            {
+                ids.put(keys[i], i);
+            }
+        }
+
+        private int id(String name)
+        {
+            return ids.get(EpaFuelEconomyIndex.normalize(name));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package service.impl;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import entity.VehicleCostResultEntity;
+import model.CalculateResponse;
+import listener.VehicleCostResultInvalidator;
+import repository.VehicleCostResultRepository;
+import service.cache.LruCache;
+
+/**
+ * Two-tier store of the latest cost-per-mile per (saved vehicle, region, fuel type):
+ * a bounded in-process LRU in front of the vehicle_cost_results table.
+ * A result is only returned for the EIA week it was calculated from, so a new weekly
+ * price invalidates it without any explicit eviction. A changed city MPG is caught by
+ * the database tier comparing against the vehicle's current value, and evicts the
+ * memory tier through {@link VehicleCostResultInvalidator}.
+ * Memory-tier hits do not re-read the vehicle (avoiding that query is the point), so
+ * they rely on that eviction alone. This is only safe on a single node where every
+ * vehicle change goes through JPA on that node. Running several instances, or changing
+ * vehicles with SQL, would need a shared invalidation first.
+ */
+@Service
+public class VehicleCostResultCache
+{
+    private static final Logger log = LoggerFactory.getLogger(VehicleCostResultCache.class);
+
+    private final VehicleCostResultRepository _repository;
+    private final LruCache<String, VehicleCostResultEntity> _memory;
+    private final Clock _clock;
+
+    @Autowired
+    public VehicleCostResultCache(VehicleCostResultRepository repository,
+                                  @Value("${vehicle.results.cache.max-entries:10000}") int maxEntries)
+    {
+        this(repository, maxEntries, Clock.systemUTC());
+    }
+
+    public VehicleCostResultCache(VehicleCostResultRepository repository, int maxEntries, Clock clock)
+    {
+        this._repository = repository;
+        this._memory = new LruCache<>(maxEntries);
+        this._clock = clock;
+    }
+
+    /**
+     * The stored result for the vehicle if it was calculated for the given week; blocks on
+     * the database when the memory tier misses. Also confirms the vehicle belongs to the owner.
+     * @return the result, or null if there is none current
+     */
+    public CalculateResponse find(Long vehicleId, Long ownerId, String region, String fuelType, LocalDate period)
+    {
+        if (period == null)
+        {
+            return null;
+        }
+        String key = resultKey(vehicleId, region, fuelType);
+        // Trusted without checking the vehicle's city MPG; see the class comment
+        VehicleCostResultEntity cached = _memory.get(key);
+        if (cached != null && cached.getOwnerId().equals(ownerId) && period.equals(cached.getPricePeriod()))
+        {
+            return toResponse(cached);
+        }
+
+        VehicleCostResultEntity stored = findStored(key, ownerId, period);
+        if (stored == null)
+        {
+            return null;
+        }
+        _memory.put(key, stored);
+        return toResponse(stored);
+    }
+
+    /**
+     * Remember a complete (non-zero, non-degraded) result calculated from the given week.
+     */
+    public void store(Long vehicleId, Long ownerId, String region, String fuelType, LocalDate period, CalculateResponse response)
+    {
+        if (period == null || response.isDegraded() || response.getCostPerMile() <= 0.0)
+        {
+            return;
+        }
+        String key = resultKey(vehicleId, region, fuelType);
+        VehicleCostResultEntity result = new VehicleCostResultEntity(key, vehicleId, ownerId, normalize(region), normalize(fuelType),
+                period, response.getCityMpg(), response.getGasPrice(), response.getCostPerMile(), _clock.instant());
+        _memory.put(key, result);
+        try
+        {
+            _repository.save(result);
+        }
+        catch (RuntimeException e)
+        {
+            log.warn("Cost result write failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Every current result for the owner's vehicles in one query.
+     */
+    public List<VehicleCostResultEntity> findCurrentForOwner(Long ownerId, String region, String fuelType, LocalDate period)
+    {
+        if (period == null)
+        {
+            return List.of();
+        }
+        return _repository.findCurrentForOwner(ownerId, normalize(region), normalize(fuelType), period);
+    }
+
+    /** Drops the vehicle's in-memory results, e.g. after its city MPG changed. */
+    public void evictVehicle(Long vehicleId)
+    {
+        String prefix = vehicleId + "|";
+        _memory.removeIf(key -> key.startsWith(prefix));
+    }
+
+    // The database tier is an optimization; if it is unavailable the result is recalculated
+    private VehicleCostResultEntity findStored(String key, Long ownerId, LocalDate period)
+    {
+        try
+        {
+            Optional<VehicleCostResultEntity> stored = _repository.findCurrent(key, ownerId, period);
+            return stored.orElse(null);
+        }
+        catch (RuntimeException e)
+        {
+            log.warn("Cost result read failed for {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private static CalculateResponse toResponse(VehicleCostResultEntity result)
+    {
+        return new CalculateResponse(result.getCityMpg(), result.getGasPrice(), result.getCostPerMile());
+    }
+
+    static String resultKey(Long vehicleId, String region, String fuelType)
+    {
+        return vehicleId + "|" + normalize(region) + "|" + normalize(fuelType);
+    }
+
+    private static String normalize(String value)
+    {
+        return value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+    }
+}
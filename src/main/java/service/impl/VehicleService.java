@@ -1,13 +1,22 @@
 package service.impl;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import entity.UserEntity;
 import entity.VehicleEntity;
+import model.FuelCosts;
+import model.MpgFigures;
+import model.VehicleCost;
 import model.VehicleRequest;
+import model.VehicleSummary;
 import repository.VehicleRepository;
 import service.api.CityMpgService;
 
@@ -16,15 +25,36 @@ public class VehicleService
 {
     private final CityMpgService _cityMpgService;
     private final VehicleRepository _vehicleRepository;
+    // Null unless the EPA dataset is configured
+    private final VehicleCatalog _catalog;
 
-    public VehicleService(CityMpgService cityMpgService, VehicleRepository vehicleRepository) {
+    @Autowired
+    public VehicleService(CityMpgService cityMpgService, VehicleRepository vehicleRepository, ObjectProvider<VehicleCatalog> catalog) {
+        this(cityMpgService, vehicleRepository, catalog.getIfAvailable());
+    }
+
+    public VehicleService(CityMpgService cityMpgService, VehicleRepository vehicleRepository, VehicleCatalog catalog) {
         this._cityMpgService = cityMpgService;
         this._vehicleRepository = vehicleRepository;
+        this._catalog = catalog;
     }
 
     @Transactional(readOnly = true)
-    public List<VehicleEntity> getVehiclesForUser(UserEntity user) {
-        return _vehicleRepository.findAllByOwnerId(user);
+    public Page<VehicleSummary> getVehiclesForUser(UserEntity user, Pageable pageable) {
+        return _vehicleRepository.findSummariesByOwner(user.getUserId(), pageable);
+    }
+
+    // Every vehicle the user owns priced at one gas price: one query, one pass
+    @Transactional(readOnly = true)
+    public List<VehicleCost> getVehicleCosts(UserEntity user, double gasPrice) {
+        List<VehicleSummary> vehicles = _vehicleRepository.findAllSummariesByOwner(user.getUserId());
+        FuelCosts fuelCosts = new FuelCosts(gasPrice);
+        List<VehicleCost> costs = new ArrayList<>(vehicles.size());
+        for (VehicleSummary vehicle : vehicles) {
+            costs.add(new VehicleCost(vehicle.getVehicleId(), vehicle.getMake(), vehicle.getModel(), vehicle.getYear(),
+                vehicle.getSubModel(), vehicle.getCityMpg(), fuelCosts.costPerMile(vehicle.getCityMpg())));
+        }
+        return costs;
     }
 
     public VehicleEntity saveNewVehicle(VehicleRequest request, UserEntity user) throws Exception{
@@ -33,13 +63,20 @@ public class VehicleService
         vehicle.setModel(request.getModel());
         vehicle.setYear(request.getYear());
         vehicle.setSubModel(request.getSubModel());
-        double mpg = _cityMpgService.getMpg(vehicle.getMake(), vehicle.getModel(), vehicle.getYear(), vehicle.getSubModel());
+        if (_catalog != null) {
+            _catalog.requireKnown(vehicle.getYear(), vehicle.getMake(), vehicle.getModel());
+        }
+        // One lookup captures city, highway and combined MPG so later calculations can blend them
+        MpgFigures figures = _cityMpgService.getMpgFigures(vehicle.getMake(), vehicle.getModel(), vehicle.getYear(), vehicle.getSubModel());
 
-        if (mpg == 0.0) {
+        if (figures.getCityMpg() == 0.0) {
             throw new Exception("Unable to retrieve MPG for the provided vehicle details.");
         }
         
-        vehicle.setCityMpg(mpg);
+        vehicle.setCityMpg(figures.getCityMpg());
+        // Raw figures (0.0 when carapi had none); the fallbacks are applied when they are read
+        vehicle.setHighwayMpg(figures.rawHighwayMpg());
+        vehicle.setCombinedMpg(figures.rawCombinedMpg());
         vehicle.setOwnerId(user);
         return vehicle; // Return the saved vehicle entity (with ID if generated)
     }
@@ -5,7 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 
-@SpringBootApplication(scanBasePackages = {"controller", "service", "config", "ui", "model", "repository"})
+@SpringBootApplication(scanBasePackages = {"controller", "service", "config", "ui", "model", "repository", "listener"})
 @EntityScan(basePackages = "entity")
 @EnableJpaRepositories(basePackages = "repository")
 public class WebApplication {
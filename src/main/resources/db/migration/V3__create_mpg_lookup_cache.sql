@@ -0,0 +1,11 @@
+-- create cache table for carapi mileage lookups (city_mpg = 0 records a "no data" answer)
+
+CREATE TABLE IF NOT EXISTS mpg_lookup_cache (
+    lookup_key VARCHAR(420) PRIMARY KEY,
+    "year" VARCHAR(4) NOT NULL,
+    make VARCHAR(100) NOT NULL,
+    model VARCHAR(100) NOT NULL,
+    submodel VARCHAR(100),
+    city_mpg DOUBLE PRECISION NOT NULL,
+    fetched_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
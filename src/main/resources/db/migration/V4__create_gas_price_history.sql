@@ -0,0 +1,10 @@
+-- weekly EIA retail prices, appended as new weeks are published
+
+CREATE TABLE IF NOT EXISTS gas_price_history (
+    duoarea VARCHAR(10) NOT NULL,
+    product VARCHAR(10) NOT NULL,
+    period DATE NOT NULL,
+    price DOUBLE PRECISION NOT NULL,
+    fetched_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (duoarea, product, period)
+);
@@ -0,0 +1,3 @@
+-- vehicle listings filter by owner; Hibernate maps the owner's @JoinColumn "userId" to user_id
+
+CREATE INDEX IF NOT EXISTS idx_vehicles_user_id ON Vehicles (user_id);
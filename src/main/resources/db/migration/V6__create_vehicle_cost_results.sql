@@ -0,0 +1,17 @@
+-- latest cost-per-mile per saved vehicle, region and fuel type; valid while price_period is the current EIA week
+-- and city_mpg still matches the vehicle
+
+CREATE TABLE IF NOT EXISTS vehicle_cost_results (
+    result_key VARCHAR(64) PRIMARY KEY,
+    vehicle_id BIGINT NOT NULL REFERENCES Vehicles(vehicle_id) ON DELETE CASCADE,
+    owner_id BIGINT NOT NULL,
+    region VARCHAR(10) NOT NULL,
+    fuel_type VARCHAR(10) NOT NULL,
+    price_period DATE NOT NULL,
+    city_mpg DOUBLE PRECISION NOT NULL,
+    gas_price DOUBLE PRECISION NOT NULL,
+    cost_per_mile DOUBLE PRECISION NOT NULL,
+    computed_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_vehicle_cost_results_owner ON vehicle_cost_results (owner_id, region, fuel_type);
@@ -0,0 +1,7 @@
+-- highway and combined MPG alongside city MPG; null on rows written before they were recorded
+
+ALTER TABLE Vehicles ADD COLUMN IF NOT EXISTS highway_mpg DOUBLE PRECISION;
+ALTER TABLE Vehicles ADD COLUMN IF NOT EXISTS combined_mpg DOUBLE PRECISION;
+
+ALTER TABLE mpg_lookup_cache ADD COLUMN IF NOT EXISTS highway_mpg DOUBLE PRECISION;
+ALTER TABLE mpg_lookup_cache ADD COLUMN IF NOT EXISTS combined_mpg DOUBLE PRECISION;
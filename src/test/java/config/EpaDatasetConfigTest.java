@@ -0,0 +1,41 @@
+package config;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.env.MapPropertySource;
+
+import service.impl.EpaFuelEconomyIndex;
+
+class EpaDatasetConfigTest {
+
+    private static AnnotationConfigApplicationContext context(Map<String, Object> properties) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+        context.register(EpaDatasetConfig.class);
+        return context;
+    }
+
+    @Test
+    void epaSourceWithoutDatasetPath_failsNamingTheMissingProperty() {
+        try (AnnotationConfigApplicationContext context = context(Map.of("mpg.source", "epa"))) {
+            BeanCreationException e = assertThrows(BeanCreationException.class, context::refresh);
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            assertTrue(message.contains("epa.dataset.path"), message);
+        }
+    }
+
+    @Test
+    void carapiSourceWithoutDatasetPath_startsWithoutTheIndex() {
+        try (AnnotationConfigApplicationContext context = context(Map.of())) {
+            context.refresh();
+            assertTrue(context.getBeansOfType(EpaFuelEconomyIndex.class).isEmpty());
+        }
+    }
+}
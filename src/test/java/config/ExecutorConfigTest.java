@@ -0,0 +1,67 @@
+package config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.http.HttpClient;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Wires AsyncConfig and HttpClientConfig with spring.threads.virtual.enabled on and off
+ * and checks which kind of thread each executor runs its tasks on.
+ */
+class ExecutorConfigTest {
+
+    @Test
+    void virtualThreadsEnabled_bothExecutorsRunTasksOnVirtualThreads() throws Exception {
+        try (AnnotationConfigApplicationContext context = context(true)) {
+            assertRunsOn(context.getBean("blockingExecutor", ExecutorService.class), true, "blocking-io-");
+            assertRunsOn(context.getBean("httpClientExecutor", ExecutorService.class), true, "http-client-");
+            assertHttpClientUses(context);
+        }
+    }
+
+    @Test
+    void virtualThreadsDisabled_bothExecutorsUseBoundedPlatformPools() throws Exception {
+        try (AnnotationConfigApplicationContext context = context(false)) {
+            assertRunsOn(context.getBean("blockingExecutor", ExecutorService.class), false, "blocking-io-");
+            assertRunsOn(context.getBean("httpClientExecutor", ExecutorService.class), false, "http-client-");
+            assertHttpClientUses(context);
+        }
+    }
+
+    private static AnnotationConfigApplicationContext context(boolean virtualThreads) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        // Binds "3s"-style durations the way Spring Boot does
+        context.getBeanFactory().setConversionService(new ApplicationConversionService());
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+            Map.of("spring.threads.virtual.enabled", String.valueOf(virtualThreads))));
+        context.register(AsyncConfig.class, HttpClientConfig.class, HttpClientProperties.class);
+        context.refresh();
+        return context;
+    }
+
+    private static void assertRunsOn(ExecutorService executor, boolean virtual, String namePrefix) throws Exception {
+        Thread thread = executor.submit(Thread::currentThread).get();
+        assertEquals(virtual, thread.isVirtual());
+        assertTrue(thread.getName().startsWith(namePrefix), thread.getName());
+        if (!virtual) {
+            assertTrue(thread.isDaemon());
+        }
+        assertFalse(executor.isShutdown());
+    }
+
+    // The shared client hands its async work to the configured executor, not the JDK default
+    private static void assertHttpClientUses(AnnotationConfigApplicationContext context) {
+        HttpClient client = context.getBean(HttpClient.class);
+        assertSame(context.getBean("httpClientExecutor"), client.executor().orElseThrow());
+    }
+}
@@ -0,0 +1,66 @@
+package repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ContextConfiguration;
+
+import entity.UserEntity;
+import entity.VehicleEntity;
+import model.VehicleSummary;
+import service.impl.VehicleCostResultCache;
+import ui.WebApplication;
+
+// H2 in PostgreSQL mode; "year" and "key" are column names here but keywords in H2
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:vehicles;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=KEY,YEAR",
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = WebApplication.class)
+class VehicleRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private VehicleRepository vehicles;
+
+    // Needed by the vehicle entity listener
+    @MockBean
+    private VehicleCostResultCache results;
+
+    @Test
+    void findSummariesByOwner_pagesOnlyTheOwnersVehicles() {
+        UserEntity owner = entityManager.persist(new UserEntity("owner@example.com", "hash"));
+        UserEntity other = entityManager.persist(new UserEntity("other@example.com", "hash"));
+        entityManager.persist(new VehicleEntity("Toyota", "Camry", "2020", "LE", 28.0, owner));
+        entityManager.persist(new VehicleEntity("Honda", "Civic", "2019", null, 31.0, owner));
+        entityManager.persist(new VehicleEntity("Ford", "F-150", "2021", "XLT", 20.0, owner));
+        entityManager.persist(new VehicleEntity("Mazda", "3", "2022", null, 28.0, other));
+        entityManager.flush();
+        entityManager.clear();
+
+        Page<VehicleSummary> first = vehicles.findSummariesByOwner(owner.getUserId(), PageRequest.of(0, 2, Sort.by("vehicleId")));
+        assertEquals(3, first.getTotalElements());
+        assertEquals(2, first.getTotalPages());
+        assertEquals(List.of("Camry", "Civic"), first.getContent().stream().map(VehicleSummary::getModel).toList());
+        assertEquals(28.0, first.getContent().get(0).getCityMpg(), 1e-9);
+
+        Page<VehicleSummary> second = vehicles.findSummariesByOwner(owner.getUserId(), PageRequest.of(1, 2, Sort.by("vehicleId")));
+        assertEquals(List.of("F-150"), second.getContent().stream().map(VehicleSummary::getModel).toList());
+        assertFalse(second.hasNext());
+    }
+}
@@ -0,0 +1,180 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import model.CalculateResponse;
+import model.MaintenanceCosts;
+import model.MaintenanceSchedule;
+import model.VehicleRequest;
+import service.api.CityMpgService;
+import service.api.GasPriceService;
+import service.impl.BatchCostCalculator;
+import service.impl.EpaFuelEconomyIndex;
+import service.impl.RegionResolver;
+import service.impl.VehicleCatalog;
+
+class BatchCostCalculatorTest {
+
+    // Default maintenance schedule and no vehicle catalog
+    private static BatchCostCalculator calculator(CityMpgService mpg, GasPriceService gas, int maxParallelism,
+                                                  int chunkSize, int maxBatchSize) {
+        return calculator(mpg, gas, new StaticListableBeanFactory(), maxParallelism, chunkSize, maxBatchSize);
+    }
+
+    private static BatchCostCalculator calculator(CityMpgService mpg, GasPriceService gas, StaticListableBeanFactory beans,
+                                                  int maxParallelism, int chunkSize, int maxBatchSize) {
+        return new BatchCostCalculator(mpg, gas, MaintenanceSchedule.of(new MaintenanceCosts()), new RegionResolver(),
+            beans.getBeanProvider(VehicleCatalog.class), maxParallelism, chunkSize, maxBatchSize);
+    }
+
+    private static VehicleRequest request(String model, String region) {
+        return new VehicleRequest("Toyota", model, "2018", null, region, "EPMR", null, null, null);
+    }
+
+    @Test
+    void calculateAll_looksUpEachDistinctKeyOnceAndKeepsOrder() {
+        CityMpgService mpg = mock(CityMpgService.class);
+        GasPriceService gas = mock(GasPriceService.class);
+        when(mpg.getMpgAsync("Toyota", "Camry", "2018", null)).thenReturn(CompletableFuture.completedFuture(25.0));
+        when(mpg.getMpgAsync("Toyota", "Corolla", "2018", null)).thenReturn(CompletableFuture.completedFuture(30.0));
+        when(gas.getPriceAsync("NUS", "EPMR")).thenReturn(CompletableFuture.completedFuture(3.00));
+        when(gas.getPriceAsync("SCA", "EPMR")).thenReturn(CompletableFuture.completedFuture(4.50));
+
+        // Chunk size 2 so the repeated keys also span chunks
+        BatchCostCalculator calc = calculator(mpg, gas, 2, 2, 100);
+        List<CalculateResponse> responses = calc.calculateAll(List.of(
+            request("Camry", "NUS"),
+            request("Corolla", "SCA"),
+            request("Camry", "NUS"),
+            request("Camry", "SCA"))).join();
+
+        assertEquals(4, responses.size());
+        assertEquals(3.00 / 25.0, responses.get(0).getCostPerMile(), 1e-9);
+        assertEquals(4.50 / 30.0, responses.get(1).getCostPerMile(), 1e-9);
+        assertEquals(3.00 / 25.0, responses.get(2).getCostPerMile(), 1e-9);
+        assertEquals(4.50 / 25.0, responses.get(3).getCostPerMile(), 1e-9);
+
+        verify(mpg, times(1)).getMpgAsync("Toyota", "Camry", "2018", null);
+        verify(mpg, times(1)).getMpgAsync("Toyota", "Corolla", "2018", null);
+        verify(gas, times(1)).getPriceAsync("NUS", "EPMR");
+        verify(gas, times(1)).getPriceAsync("SCA", "EPMR");
+    }
+
+    @Test
+    void calculateAll_failedLookupDegradesThoseVehiclesOnly() {
+        CityMpgService mpg = mock(CityMpgService.class);
+        GasPriceService gas = mock(GasPriceService.class);
+        when(mpg.getMpgAsync("Toyota", "Camry", "2018", null)).thenReturn(CompletableFuture.completedFuture(25.0));
+        when(gas.getPriceAsync(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(3.00));
+        when(gas.getPriceAsync("BAD", "EPMR")).thenReturn(CompletableFuture.failedFuture(new RuntimeException("EIA down")));
+
+        BatchCostCalculator calc = calculator(mpg, gas, 4, 500, 100);
+        List<CalculateResponse> responses = calc.calculateAll(List.of(request("Camry", "BAD"), request("Camry", "NUS"))).join();
+
+        assertEquals(0.0, responses.get(0).getCostPerMile(), 1e-9);
+        assertTrue(responses.get(0).isDegraded());
+        // The figure that was found is still reported, as for a single calculation
+        assertEquals(25.0, responses.get(0).getCityMpg(), 1e-9);
+        assertEquals(3.00 / 25.0, responses.get(1).getCostPerMile(), 1e-9);
+        assertFalse(responses.get(1).isDegraded());
+    }
+
+    @Test
+    void calculateAll_horizonMilesAddsAProjectionPerVehicle() {
+        CityMpgService mpg = mock(CityMpgService.class);
+        GasPriceService gas = mock(GasPriceService.class);
+        when(mpg.getMpgAsync("Toyota", "Camry", "2018", null)).thenReturn(CompletableFuture.completedFuture(25.0));
+        when(gas.getPriceAsync("NUS", "EPMR")).thenReturn(CompletableFuture.completedFuture(3.00));
+        VehicleRequest projected = request("Camry", "NUS");
+        projected.setHorizonMiles(100_000);
+
+        BatchCostCalculator calc = calculator(mpg, gas, 4, 500, 100);
+        List<CalculateResponse> responses = calc.calculateAll(List.of(projected, request("Camry", "NUS"))).join();
+
+        double[] miles = responses.get(0).getProjectionMiles();
+        assertEquals(100_000.0, miles[miles.length - 1], 1e-9);
+        assertNull(responses.get(1).getProjectionMiles());
+    }
+
+    @Test
+    void calculateAll_statesAndZipsShareTheLookupOfTheirRegion() {
+        CityMpgService mpg = mock(CityMpgService.class);
+        GasPriceService gas = mock(GasPriceService.class);
+        when(mpg.getMpgAsync("Toyota", "Camry", "2018", null)).thenReturn(CompletableFuture.completedFuture(25.0));
+        when(gas.getPriceAsync("R1Z", "EPMR")).thenReturn(CompletableFuture.completedFuture(3.10));
+
+        BatchCostCalculator calc = calculator(mpg, gas, 4, 500, 100);
+        List<CalculateResponse> responses = calc.calculateAll(List.of(
+            request("Camry", "GA"), request("Camry", "31401"), request("Camry", "r1z"))).join();
+
+        for (CalculateResponse response : responses) {
+            assertEquals(3.10 / 25.0, response.getCostPerMile(), 1e-9);
+        }
+        verify(gas, times(1)).getPriceAsync("R1Z", "EPMR");
+    }
+
+    @Test
+    void calculateAll_returnsAtOnceAndStartsTheNextLookupAsOneCompletes() {
+        CityMpgService mpg = mock(CityMpgService.class);
+        GasPriceService gas = mock(GasPriceService.class);
+        CompletableFuture<Double> camry = new CompletableFuture<>();
+        CompletableFuture<Double> corolla = new CompletableFuture<>();
+        when(mpg.getMpgAsync("Toyota", "Camry", "2018", null)).thenReturn(camry);
+        when(mpg.getMpgAsync("Toyota", "Corolla", "2018", null)).thenReturn(corolla);
+        when(gas.getPriceAsync("NUS", "EPMR")).thenReturn(CompletableFuture.completedFuture(3.00));
+
+        // One lookup in flight at a time: the price (done at once), then Camry, then Corolla
+        BatchCostCalculator calc = calculator(mpg, gas, 1, 500, 100);
+        CompletableFuture<List<CalculateResponse>> responses =
+            calc.calculateAll(List.of(request("Camry", "NUS"), request("Corolla", "NUS")));
+
+        assertFalse(responses.isDone());
+        verify(mpg, never()).getMpgAsync("Toyota", "Corolla", "2018", null);
+
+        camry.complete(25.0);
+        verify(mpg).getMpgAsync("Toyota", "Corolla", "2018", null);
+        assertFalse(responses.isDone());
+
+        corolla.complete(30.0);
+        assertEquals(3.00 / 30.0, responses.join().get(1).getCostPerMile(), 1e-9);
+    }
+
+    @Test
+    void calculateAll_unknownVehicleIsAnErrorEntryAndIsNotLookedUp() throws Exception {
+        CityMpgService mpg = mock(CityMpgService.class);
+        GasPriceService gas = mock(GasPriceService.class);
+        when(mpg.getMpgAsync("Toyota", "Camry", "2018", null)).thenReturn(CompletableFuture.completedFuture(25.0));
+        when(gas.getPriceAsync("NUS", "EPMR")).thenReturn(CompletableFuture.completedFuture(3.00));
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("vehicleCatalog", VehicleCatalog.from(EpaFuelEconomyIndex.load(new StringReader(String.join("\n",
+            "city08,comb08,highway08,make,model,year,baseModel",
+            "28,32,39,Toyota,Camry,2018,Camry")))));
+
+        BatchCostCalculator calc = calculator(mpg, gas, beans, 4, 500, 100);
+        List<CalculateResponse> responses = calc.calculateAll(List.of(
+            request("Camry", "NUS"), request("Supra", "SCA"))).join();
+
+        assertNull(responses.get(0).getError());
+        assertEquals(3.00 / 25.0, responses.get(0).getCostPerMile(), 1e-9);
+        assertEquals("Unknown vehicle: 2018 Toyota Supra", responses.get(1).getError());
+        assertEquals(0.0, responses.get(1).getCostPerMile(), 1e-9);
+        verify(mpg, never()).getMpgAsync("Toyota", "Supra", "2018", null);
+        verify(gas, never()).getPriceAsync("SCA", "EPMR");
+    }
+}
@@ -0,0 +1,97 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import entity.MpgLookupEntity;
+import model.MpgFigures;
+import repository.MpgLookupRepository;
+import service.api.CityMpgService;
+import service.impl.CachedCityMpgService;
+
+class CachedCityMpgServiceTest {
+
+    private static final MpgFigures CAMRY = new MpgFigures(28.0, 39.0, 32.0);
+
+    private final CityMpgService carapi = mock(CityMpgService.class);
+    private final MpgLookupRepository repository = mock(MpgLookupRepository.class);
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-10-15T12:00:00Z"));
+
+    private CachedCityMpgService cache() {
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        return new CachedCityMpgService(carapi, repository, Runnable::run, 16, Duration.ofDays(1), clock);
+    }
+
+    @Test
+    void getMpgFigures_missThenHit_callsCarapiOnce() throws Exception {
+        when(carapi.getMpgFigures("Toyota", "Camry", "2020", null)).thenReturn(CAMRY);
+        CachedCityMpgService cache = cache();
+
+        assertEquals(28.0, cache.getMpgFigures("Toyota", "Camry", "2020", null).getCityMpg(), 1e-9);
+        assertEquals(39.0, cache.getMpgFigures("toyota", " camry", "2020", null).getHighwayMpg(), 1e-9);
+
+        verify(carapi, times(1)).getMpgFigures("Toyota", "Camry", "2020", null);
+        verify(repository, times(1)).save(any(MpgLookupEntity.class));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getMemoryHitCount());
+    }
+
+    @Test
+    void getMpgFigures_noData_isCachedOnlyForTheNegativeTtl() throws Exception {
+        when(carapi.getMpgFigures("Toyota", "Unknown", "2020", null)).thenReturn(MpgFigures.NONE);
+        CachedCityMpgService cache = cache();
+
+        assertEquals(0.0, cache.getMpg("Toyota", "Unknown", "2020", null), 1e-9);
+        clock.advance(Duration.ofHours(23));
+        assertEquals(0.0, cache.getMpg("Toyota", "Unknown", "2020", null), 1e-9);
+        verify(carapi, times(1)).getMpgFigures("Toyota", "Unknown", "2020", null);
+
+        clock.advance(Duration.ofHours(2));
+        cache.getMpg("Toyota", "Unknown", "2020", null);
+        verify(carapi, times(2)).getMpgFigures("Toyota", "Unknown", "2020", null);
+    }
+
+    @Test
+    void getMpgFigures_storedRow_readsThroughWithoutCallingCarapi() throws Exception {
+        when(repository.findById("2020|toyota|camry|")).thenReturn(Optional.of(
+            new MpgLookupEntity("2020|toyota|camry|", "2020", "toyota", "camry", null, CAMRY, clock.now.minus(Duration.ofDays(90)))));
+        CachedCityMpgService cache = new CachedCityMpgService(carapi, repository, Runnable::run, 16, Duration.ofDays(1), clock);
+
+        assertEquals(32.0, cache.getMpgFigures("Toyota", "Camry", "2020", null).getCombinedMpg(), 1e-9);
+        // Promoted to memory, so the second lookup does not touch the database
+        assertEquals(28.0, cache.getMpgFiguresAsync("Toyota", "Camry", "2020", null).join().getCityMpg(), 1e-9);
+
+        verify(carapi, never()).getMpgFigures(anyString(), anyString(), anyString(), any());
+        verify(repository, times(1)).findById("2020|toyota|camry|");
+        assertEquals(1, cache.getDatabaseHitCount());
+        assertEquals(1, cache.getMemoryHitCount());
+    }
+
+    @Test
+    void getMpgFigures_failedLookup_isNotCached() throws Exception {
+        when(carapi.getMpgFigures("Toyota", "Camry", "2020", null))
+            .thenThrow(new IOException("carapi returned status 429"))
+            .thenReturn(CAMRY);
+        CachedCityMpgService cache = cache();
+
+        assertThrows(IOException.class, () -> cache.getMpgFigures("Toyota", "Camry", "2020", null));
+        verify(repository, never()).save(any(MpgLookupEntity.class));
+
+        assertEquals(28.0, cache.getMpgFigures("Toyota", "Camry", "2020", null).getCityMpg(), 1e-9);
+        verify(carapi, times(2)).getMpgFigures("Toyota", "Camry", "2020", null);
+    }
+}
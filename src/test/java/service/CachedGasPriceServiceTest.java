@@ -0,0 +1,150 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import model.GasPriceQuote;
+import service.api.GasPriceService;
+import service.http.UpstreamUnavailableException;
+import service.impl.CachedGasPriceService;
+
+class CachedGasPriceServiceTest {
+
+    // Monday 2024-10-14 published at 17:00 ET; next release is 2024-10-21 21:00 UTC
+    private static final LocalDate PERIOD = LocalDate.of(2024, 10, 14);
+
+    @Test
+    void getPrice_servesFromCacheUntilNextWeeklyRelease() throws Exception {
+        GasPriceService eia = mock(GasPriceService.class);
+        when(eia.getQuote("SCA", "EPMR")).thenReturn(new GasPriceQuote(4.50, PERIOD));
+        MutableClock clock = new MutableClock(Instant.parse("2024-10-15T12:00:00Z"));
+
+        CachedGasPriceService cache = new CachedGasPriceService(eia, 16, Duration.ofHours(6), Duration.ofMinutes(30), clock);
+
+        assertEquals(4.50, cache.getPrice("SCA", "EPMR"), 1e-9);
+        clock.now = Instant.parse("2024-10-21T20:59:00Z");
+        assertEquals(4.50, cache.getPrice("sca", "epmr"), 1e-9);
+
+        verify(eia, times(1)).getQuote("SCA", "EPMR");
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void getPrice_withinStaleWindow_returnsStaleAndRefreshesInBackground() throws Exception {
+        GasPriceService eia = mock(GasPriceService.class);
+        when(eia.getQuote("SCA", "EPMR")).thenReturn(new GasPriceQuote(4.50, PERIOD));
+        when(eia.getQuoteAsync("SCA", "EPMR"))
+            .thenReturn(CompletableFuture.completedFuture(new GasPriceQuote(4.40, PERIOD.plusWeeks(1))));
+        MutableClock clock = new MutableClock(Instant.parse("2024-10-15T12:00:00Z"));
+
+        CachedGasPriceService cache = new CachedGasPriceService(eia, 16, Duration.ofHours(6), Duration.ofMinutes(30), clock);
+        cache.getPrice("SCA", "EPMR");
+
+        clock.now = Instant.parse("2024-10-21T22:00:00Z");
+        assertEquals(4.50, cache.getPrice("SCA", "EPMR"), 1e-9);
+        assertEquals(1, cache.getStaleHitCount());
+
+        verify(eia, timeout(2000).times(1)).getQuoteAsync("SCA", "EPMR");
+        assertEquals(4.40, cache.getPrice("SCA", "EPMR"), 1e-9);
+    }
+
+    @Test
+    void getPrice_pastStaleWindow_blocksOnEia() throws Exception {
+        GasPriceService eia = mock(GasPriceService.class);
+        when(eia.getQuote("SCA", "EPMR"))
+            .thenReturn(new GasPriceQuote(4.50, PERIOD))
+            .thenReturn(new GasPriceQuote(4.40, PERIOD.plusWeeks(1)));
+        MutableClock clock = new MutableClock(Instant.parse("2024-10-15T12:00:00Z"));
+
+        CachedGasPriceService cache = new CachedGasPriceService(eia, 16, Duration.ofHours(6), Duration.ofMinutes(30), clock);
+        cache.getPrice("SCA", "EPMR");
+
+        clock.now = Instant.parse("2024-10-22T12:00:00Z");
+        assertEquals(4.40, cache.getPrice("SCA", "EPMR"), 1e-9);
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void getPrice_eiaUnavailable_servesLastKnownGoodPrice() throws Exception {
+        GasPriceService eia = mock(GasPriceService.class);
+        when(eia.getQuote("SCA", "EPMR"))
+            .thenReturn(new GasPriceQuote(4.50, PERIOD))
+            .thenThrow(new UpstreamUnavailableException("Circuit open for eia"));
+        MutableClock clock = new MutableClock(Instant.parse("2024-10-15T12:00:00Z"));
+
+        CachedGasPriceService cache = new CachedGasPriceService(eia, 16, Duration.ofHours(6), Duration.ofMinutes(30), clock);
+        cache.getPrice("SCA", "EPMR");
+
+        // Well past the stale window, but a week-old price beats no price
+        clock.now = Instant.parse("2024-10-29T12:00:00Z");
+        assertEquals(4.50, cache.getPrice("SCA", "EPMR"), 1e-9);
+        assertEquals(1, cache.getFallbackCount());
+    }
+
+    @Test
+    void getPrice_noSeriesForRegion_servesNearestWiderRegionFromCache() throws Exception {
+        GasPriceService eia = mock(GasPriceService.class);
+        MutableClock clock = new MutableClock(Instant.parse("2024-10-15T12:00:00Z"));
+        CachedGasPriceService cache = new CachedGasPriceService(eia, 16, Duration.ofHours(6), Duration.ofMinutes(30), clock);
+        cache.put("R1Z", "EPMR", new GasPriceQuote(3.10, PERIOD));
+        cache.put("NUS", "EPMR", new GasPriceQuote(3.20, PERIOD));
+        cache.put("YMIA", "EPMR", new GasPriceQuote(0.0, null));
+
+        // Miami -> Florida (not cached) -> PADD 1C
+        assertEquals(3.10, cache.getPrice("YMIA", "EPMR"), 1e-9);
+        verify(eia, times(0)).getQuote("YMIA", "EPMR");
+
+        // A code the enum does not know falls back to the national average
+        when(eia.getQuote("SGA", "EPMR")).thenReturn(new GasPriceQuote(0.0, null));
+        assertEquals(3.20, cache.getPrice("SGA", "EPMR"), 1e-9);
+        assertEquals(2, cache.getRegionFallbackCount());
+    }
+
+    @Test
+    void getPrice_noSeriesMarker_staysInMemoryUntilTheNextRelease() throws Exception {
+        GasPriceService eia = mock(GasPriceService.class);
+        when(eia.getQuoteAsync("YMIA", "EPMR")).thenReturn(CompletableFuture.completedFuture(new GasPriceQuote(0.0, null)));
+        MutableClock clock = new MutableClock(Instant.parse("2024-10-15T12:00:00Z"));
+        CachedGasPriceService cache = new CachedGasPriceService(eia, 16, Duration.ofHours(6), Duration.ofMinutes(30), clock);
+        cache.put("R1Z", "EPMR", new GasPriceQuote(3.10, PERIOD));
+        cache.putNoSeries("YMIA", "EPMR");
+
+        // Well past the retry interval and the stale window, but before Monday's release
+        clock.now = Instant.parse("2024-10-21T20:59:00Z");
+        assertEquals(3.10, cache.getPrice("YMIA", "EPMR"), 1e-9);
+        assertEquals(3.10, cache.getQuoteAsync("YMIA", "EPMR").get().getPrice(), 1e-9);
+        verify(eia, never()).getQuote("YMIA", "EPMR");
+        verify(eia, never()).getQuoteAsync("YMIA", "EPMR");
+
+        // After the release the marker is stale, and EIA is asked again in the background
+        clock.now = Instant.parse("2024-10-21T21:05:00Z");
+        assertEquals(3.10, cache.getPrice("YMIA", "EPMR"), 1e-9);
+        verify(eia, timeout(2000).times(1)).getQuoteAsync("YMIA", "EPMR");
+    }
+
+    @Test
+    void putNoSeries_keepsARealPrice() throws Exception {
+        GasPriceService eia = mock(GasPriceService.class);
+        MutableClock clock = new MutableClock(Instant.parse("2024-10-15T12:00:00Z"));
+        CachedGasPriceService cache = new CachedGasPriceService(eia, 16, Duration.ofHours(6), Duration.ofMinutes(30), clock);
+        cache.put("SCA", "EPMR", new GasPriceQuote(4.50, PERIOD));
+
+        cache.putNoSeries("SCA", "EPMR");
+
+        assertEquals(4.50, cache.getPrice("SCA", "EPMR"), 1e-9);
+    }
+}
@@ -0,0 +1,51 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import service.http.CircuitBreaker;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensAtFailureRate_thenLetsOneProbeThroughAfterOpenDuration() {
+        MutableClock clock = new MutableClock(Instant.parse("2024-10-15T12:00:00Z"));
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 50, Duration.ofSeconds(30), clock);
+
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState()); // Below minimum calls
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState()); // 2 of 4 failed
+        assertFalse(breaker.tryAcquirePermission());
+
+        clock.advance(Duration.ofSeconds(30));
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission()); // Only one probe while half-open
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void failedProbeReopens() {
+        MutableClock clock = new MutableClock(Instant.parse("2024-10-15T12:00:00Z"));
+        CircuitBreaker breaker = new CircuitBreaker(4, 2, 50, Duration.ofSeconds(30), clock);
+        breaker.onFailure();
+        breaker.onFailure();
+
+        clock.advance(Duration.ofSeconds(31));
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+}
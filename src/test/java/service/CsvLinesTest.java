@@ -0,0 +1,23 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import service.impl.CsvLines;
+
+class CsvLinesTest {
+
+    @Test
+    void split_keepsCommasAndEscapedQuotesInsideQuotedFields() {
+        assertEquals(List.of("2018", "Automatic (S8), 8-speed", "say \"hi\"", ""),
+            CsvLines.split("2018,\"Automatic (S8), 8-speed\",\"say \"\"hi\"\"\","));
+    }
+
+    @Test
+    void split_emptyLineIsOneEmptyField() {
+        assertEquals(List.of(""), CsvLines.split(""));
+    }
+}
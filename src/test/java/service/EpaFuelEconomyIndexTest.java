@@ -0,0 +1,58 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringReader;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import service.impl.EpaFuelEconomyIndex;
+
+class EpaFuelEconomyIndexTest {
+
+    // Trimmed vehicles.csv: real column names, extra columns and a quoted field with a comma
+    private static final String CSV = String.join("\n",
+        "barrels08,city08,comb08,highway08,make,model,trany,year,baseModel",
+        "12.3,28,32,39,Toyota,Camry,\"Automatic (S8), 8-speed\",2018,Camry",
+        "6.9,51,52,53,Toyota,Camry Hybrid LE,Automatic (variable gear ratios),2018,Camry",
+        "7.4,44,46,47,Toyota,Camry Hybrid XLE/SE,Automatic (variable gear ratios),2018,Camry",
+        "20.6,0,18,23,Ford,F150 Pickup 2WD,Automatic (S10),2018,F150",
+        "bad,row",
+        "");
+
+    private static EpaFuelEconomyIndex index;
+
+    @BeforeAll
+    static void load() throws Exception {
+        index = EpaFuelEconomyIndex.load(new StringReader(CSV));
+    }
+
+    @Test
+    void load_skipsMalformedRows() {
+        assertEquals(4, index.size());
+        assertEquals(1, index.skippedRows());
+    }
+
+    @Test
+    void cityMpg_matchesSubmodelIgnoringCase() {
+        assertEquals(51.0, index.cityMpg("toyota", "camry", "2018", "hybrid le"), 1e-9);
+        assertEquals(44.0, index.cityMpg("Toyota", "Camry", "2018", "Hybrid XLE/SE"), 1e-9);
+        assertEquals(51.0, index.cityMpg("Toyota", "Camry Hybrid LE", "2018", null), 1e-9);
+    }
+
+    @Test
+    void cityMpg_fallsBackToFirstRowThenCombined() {
+        assertEquals(28.0, index.cityMpg("Toyota", "Camry", "2018", "TRD"), 1e-9);
+        assertEquals(28.0, index.cityMpg("Toyota", "Camry", "2018", null), 1e-9);
+        // No city figure: combined is used; punctuation is ignored
+        assertEquals(18.0, index.cityMpg("Ford", "F-150", "2018", null), 1e-9);
+    }
+
+    @Test
+    void cityMpg_unknownVehicle_returnsZero() {
+        assertEquals(0.0, index.cityMpg("Toyota", "Camry", "1899", null), 1e-9);
+        assertEquals(0.0, index.cityMpg("Toyota", "Camry", "not a year", null), 1e-9);
+        assertEquals(0.0, index.cityMpg(null, "Camry", "2018", null), 1e-9);
+    }
+}
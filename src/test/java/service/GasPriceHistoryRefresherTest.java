@@ -0,0 +1,47 @@
+package service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import org.junit.jupiter.api.Test;
+
+import model.Region;
+import service.impl.GasPriceHistoryRefresher;
+import service.impl.GasPriceHistoryService;
+
+class GasPriceHistoryRefresherTest {
+
+    private final GasPriceHistoryService history = mock(GasPriceHistoryService.class);
+
+    @Test
+    void refresh_appendsEveryRegionForEachFuelType() throws Exception {
+        new GasPriceHistoryRefresher(history, new String[] { "EPMR", "EPMP" }, true).refresh();
+
+        verify(history).refresh(argThat((Collection<String> areas) -> areas.size() == Region.values().length), eq("EPMR"));
+        verify(history).refresh(any(), eq("EPMP"));
+    }
+
+    @Test
+    void refresh_failedFuelTypeDoesNotStopTheOthers() throws Exception {
+        when(history.refresh(any(), eq("EPMR"))).thenThrow(new IOException("EIA down"));
+
+        new GasPriceHistoryRefresher(history, new String[] { "EPMR", "EPMP" }, true).refresh();
+
+        verify(history).refresh(any(), eq("EPMP"));
+    }
+
+    @Test
+    void refresh_disabledDoesNothing() {
+        new GasPriceHistoryRefresher(history, new String[] { "EPMR" }, false).refreshOnStartup();
+
+        verifyNoInteractions(history);
+    }
+}
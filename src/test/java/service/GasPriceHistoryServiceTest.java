@@ -0,0 +1,152 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import entity.GasPriceHistoryEntity;
+import entity.GasPriceHistoryKey;
+import model.GasPriceQuote;
+import model.PriceHistoryResponse;
+import repository.GasPriceHistoryRepository;
+import service.impl.GasPriceHistoryService;
+import service.impl.GetAverageGasPrice;
+import service.impl.PriceSeries;
+
+class GasPriceHistoryServiceTest {
+
+    private static final Clock CLOCK = Clock.fixed(LocalDate.of(2024, 10, 16).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    @Test
+    void movingAveragesUseWeeksBeforeTheRange() {
+        PriceSeries series = PriceSeries.EMPTY.append(new long[] { 1, 2, 3, 4, 5 }, new double[] { 1, 2, 3, 4, 5 }, 5);
+
+        assertArrayEquals(new double[] { 1, 1.5, 2, 3, 4 }, series.movingAverages(0, 3), 1e-9);
+        assertArrayEquals(new double[] { 3, 4 }, series.movingAverages(3, 3), 1e-9);
+    }
+
+    @Test
+    void appendLeavesEarlierSnapshotsUnchanged() {
+        PriceSeries first = PriceSeries.EMPTY.append(new long[] { 1 }, new double[] { 3.0 }, 1);
+        PriceSeries second = first.append(new long[] { 2, 3 }, new double[] { 3.1, 3.2 }, 2);
+
+        assertEquals(1, first.size());
+        assertEquals(3, second.size());
+        assertEquals(3, second.lastEpochDay());
+        assertEquals(1, second.indexOnOrAfter(2));
+    }
+
+    @Test
+    void refreshFetchesOnlyWeeksAfterTheStoredOnes() throws Exception {
+        LocalDate stored = LocalDate.of(2024, 10, 7);
+        GasPriceHistoryRepository repository = mock(GasPriceHistoryRepository.class);
+        when(repository.findSeries("SCA", "EPMR")).thenReturn(List.of(
+            new GasPriceHistoryEntity(new GasPriceHistoryKey("SCA", "EPMR", stored), 4.60, CLOCK.instant())));
+        GetAverageGasPrice eia = mock(GetAverageGasPrice.class);
+        LocalDate latest = LocalDate.of(2024, 10, 14);
+        when(eia.getHistory(any(), eq("EPMR"), eq(stored.plusDays(1)), anyInt(), eq(0))).thenReturn(Map.of("SCA", List.of(
+            new GasPriceQuote(4.65, latest), new GasPriceQuote(4.60, stored))));
+
+        GasPriceHistoryService history = new GasPriceHistoryService(eia, repository, 104, CLOCK);
+        assertEquals(1, history.refresh(List.of("SCA"), "EPMR"));
+
+        verify(repository).saveAll(argThat((Iterable<GasPriceHistoryEntity> rows) ->
+            rows.iterator().next().getKey().equals(new GasPriceHistoryKey("SCA", "EPMR", latest))));
+        PriceHistoryResponse response = history.history("SCA", "EPMR", 52, 2);
+        assertArrayEquals(new String[] { "2024-10-07", "2024-10-14" }, response.getPeriods());
+        assertArrayEquals(new double[] { 4.60, 4.625 }, response.getMovingAverages(), 1e-9);
+        assertEquals(0.05, response.getChange(), 1e-9);
+        assertNull(history.history("STX", "EPMR", 52, 2));
+    }
+
+    @Test
+    void refreshBackfillsANewSeriesWithoutRefetchingTheStoredOnes() throws Exception {
+        LocalDate stored = LocalDate.of(2024, 10, 7);
+        GasPriceHistoryRepository repository = mock(GasPriceHistoryRepository.class);
+        when(repository.findSeries("SCA", "EPMR")).thenReturn(List.of(
+            new GasPriceHistoryEntity(new GasPriceHistoryKey("SCA", "EPMR", stored), 4.60, CLOCK.instant())));
+        GetAverageGasPrice eia = mock(GetAverageGasPrice.class);
+        LocalDate backfillStart = LocalDate.of(2024, 10, 16).minusWeeks(104);
+        when(eia.getHistory(List.of("SCA"), "EPMR", stored.plusDays(1), 2, 0)).thenReturn(Map.of());
+        when(eia.getHistory(List.of("STX"), "EPMR", backfillStart, 105, 0)).thenReturn(Map.of("STX", List.of(
+            new GasPriceQuote(2.80, LocalDate.of(2024, 10, 14)), new GasPriceQuote(2.85, stored))));
+
+        GasPriceHistoryService history = new GasPriceHistoryService(eia, repository, 104, CLOCK);
+        assertEquals(2, history.refresh(List.of("SCA", "STX"), "EPMR"));
+
+        // The stored series is asked only for the weeks after its own
+        verify(eia).getHistory(List.of("SCA"), "EPMR", stored.plusDays(1), 2, 0);
+        verify(eia).getHistory(List.of("STX"), "EPMR", backfillStart, 105, 0);
+        assertEquals(2, history.series("STX", "EPMR").size());
+    }
+
+    @Test
+    void refreshPagesUntilEiaHasNoMoreRows() throws Exception {
+        GasPriceHistoryRepository repository = mock(GasPriceHistoryRepository.class);
+        GetAverageGasPrice eia = mock(GetAverageGasPrice.class);
+        // 60 areas over a 104-week backfill is more than one request's 5000 rows
+        List<String> areas = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            areas.add("A" + i);
+        }
+        LocalDate since = LocalDate.of(2024, 10, 16).minusWeeks(104);
+        List<GasPriceQuote> fullPage = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            fullPage.add(new GasPriceQuote(3.00, LocalDate.of(2024, 10, 14).minusWeeks(i / 60)));
+        }
+        when(eia.getHistory(areas, "EPMR", since, 5000, 0)).thenReturn(Map.of("A0", fullPage));
+        when(eia.getHistory(areas, "EPMR", since, 5000, 5000)).thenReturn(Map.of("A0", List.of(
+            new GasPriceQuote(3.10, since))));
+
+        GasPriceHistoryService history = new GasPriceHistoryService(eia, repository, 104, CLOCK);
+        history.refresh(areas, "EPMR");
+
+        verify(eia).getHistory(areas, "EPMR", since, 5000, 5000);
+        // The oldest week came from the second page
+        assertEquals(since.toEpochDay(), history.series("A0", "EPMR").epochDay(0));
+    }
+
+    @Test
+    void historyFallsBackToTheNearestWiderRegion() throws Exception {
+        GasPriceHistoryRepository repository = mock(GasPriceHistoryRepository.class);
+        when(repository.findSeries("R5XCA", "EPMR")).thenReturn(List.of(
+            new GasPriceHistoryEntity(new GasPriceHistoryKey("R5XCA", "EPMR", LocalDate.of(2024, 10, 14)), 3.90, CLOCK.instant())));
+
+        GasPriceHistoryService history = new GasPriceHistoryService(mock(GetAverageGasPrice.class), repository, 104, CLOCK);
+
+        // Seattle has no stored series; Washington is skipped for the same reason
+        assertEquals("R5XCA", history.history("Y48SE", "EPMR", 52, 4).getRegion());
+    }
+
+    @Test
+    void seriesIsLoadedOnceAndOnlyForTheKeyAskedFor() {
+        GasPriceHistoryRepository repository = mock(GasPriceHistoryRepository.class);
+        when(repository.findSeries("SCA", "EPMR")).thenReturn(List.of(
+            new GasPriceHistoryEntity(new GasPriceHistoryKey("SCA", "EPMR", LocalDate.of(2024, 10, 14)), 4.65, CLOCK.instant())));
+        GasPriceHistoryService history = new GasPriceHistoryService(mock(GetAverageGasPrice.class), repository, 104, CLOCK);
+
+        assertEquals(1, history.series("sca", "epmr").size());
+        assertEquals(1, history.series("SCA", "EPMR").size());
+
+        verify(repository, times(1)).findSeries("SCA", "EPMR");
+        verifyNoMoreInteractions(repository);
+    }
+}
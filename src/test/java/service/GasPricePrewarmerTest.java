@@ -0,0 +1,77 @@
+package service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import model.GasPriceQuote;
+import model.Region;
+import service.impl.CachedGasPriceService;
+import service.impl.GasPricePrewarmer;
+import service.impl.GetAverageGasPrice;
+
+class GasPricePrewarmerTest {
+
+    private static final LocalDate WEEK = LocalDate.of(2024, 10, 14);
+
+    private final GetAverageGasPrice eia = mock(GetAverageGasPrice.class);
+    private final CachedGasPriceService cache = mock(CachedGasPriceService.class);
+
+    @Test
+    void refresh_cachesEveryRegionFromOneQueryPerFuelType() throws Exception {
+        GasPriceQuote national = new GasPriceQuote(3.20, WEEK);
+        GasPriceQuote california = new GasPriceQuote(4.65, WEEK);
+        when(eia.getLatestQuotes(any(), eq("EPMR"))).thenReturn(Map.of("NUS", national, "SCA", california));
+        when(eia.getLatestQuotes(any(), eq("EPMP"))).thenReturn(Map.of("NUS", new GasPriceQuote(4.10, WEEK)));
+
+        new GasPricePrewarmer(eia, cache, new String[] { "EPMR", "EPMP" }, true).refresh();
+
+        verify(eia).getLatestQuotes(argThat((Collection<String> areas) -> areas.size() == Region.values().length), eq("EPMR"));
+        verify(cache).put("NUS", "EPMR", national);
+        verify(cache).put("SCA", "EPMR", california);
+    }
+
+    @Test
+    void refresh_marksRegionsEiaDoesNotPublish() throws Exception {
+        when(eia.getLatestQuotes(any(), eq("EPMR"))).thenReturn(Map.of("NUS", new GasPriceQuote(3.20, WEEK)));
+
+        new GasPricePrewarmer(eia, cache, new String[] { "EPMR" }, true).refresh();
+
+        // Marked until the next release, so the cache falls back to a wider region instead of asking EIA
+        verify(cache).putNoSeries("R20", "EPMR");
+        verify(cache, times(Region.values().length - 1)).putNoSeries(any(), eq("EPMR"));
+        verify(cache, never()).put(eq("R20"), any(), any());
+    }
+
+    @Test
+    void refresh_failedQuoteCachesNothing() throws Exception {
+        when(eia.getLatestQuotes(any(), eq("EPMR"))).thenThrow(new IOException("EIA down"));
+
+        new GasPricePrewarmer(eia, cache, new String[] { "EPMR" }, true).refresh();
+
+        verify(cache, never()).put(any(), any(), any());
+        verify(cache, never()).putNoSeries(any(), any());
+    }
+
+    @Test
+    void refresh_disabledDoesNothing() {
+        GasPricePrewarmer prewarmer = new GasPricePrewarmer(eia, cache, new String[] { "EPMR" }, false);
+
+        prewarmer.warmOnStartup();
+
+        verifyNoInteractions(eia, cache);
+    }
+}
@@ -1,21 +1,209 @@
 package service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import entity.UserEntity;
+import entity.VehicleEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import model.CalculateResponse;
+import model.GasPriceQuote;
+import model.MpgFigures;
 import model.MaintenanceCosts;
+import model.MaintenanceSchedule;
+import model.VehicleRequest;
+import repository.VehicleCostResultRepository;
+import repository.VehicleRepository;
 import service.api.CityMpgService;
 import service.api.GasPriceService;
+import service.http.UpstreamUnavailableException;
 import service.impl.CostPerMileCalculator;
+import service.impl.RegionResolver;
+import service.impl.VehicleCatalog;
+import service.impl.VehicleCostResultCache;
 
 class MileageCalculatorTest {
 
+    // A result store with nothing saved yet
+    private static VehicleCostResultCache noStoredResults() {
+        return new VehicleCostResultCache(mock(VehicleCostResultRepository.class), 100);
+    }
+
+    // Default maintenance schedule, no vehicle catalog and a same-thread executor
+    private static CostPerMileCalculator calculator(CityMpgService mpg, GasPriceService gas, VehicleRepository vehicles,
+                                                    VehicleCostResultCache results, Duration deadline,
+                                                    MeterRegistry registry) {
+        return new CostPerMileCalculator(mpg, gas, vehicles, results, new RegionResolver(),
+            MaintenanceSchedule.of(new MaintenanceCosts()),
+            new StaticListableBeanFactory().getBeanProvider(VehicleCatalog.class),
+            Runnable::run, deadline, registry);
+    }
+
+    // Waits for the calculation and rethrows its failure as it would reach the controller
+    private static CalculateResponse calculate(CostPerMileCalculator calc, VehicleRequest request, UserEntity user) {
+        try {
+            return calc.calculateCostPerMileAsync(request, user).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static VehicleRequest guestRequest() {
+        return new VehicleRequest("Toyota", "Camry", "2018", null, "region", "fuelType", null, null, null);
+    }
+
+    @Test
+    void calculateCostPerMile_startsBothLookupsBeforeEitherCompletes() throws Exception {
+        CityMpgService mpg = mock(CityMpgService.class);
+        GasPriceService gas = mock(GasPriceService.class);
+        CompletableFuture<Double> price = new CompletableFuture<>();
+        CompletableFuture<Double> mileage = new CompletableFuture<>();
+        when(gas.getPriceAsync("region", "fuelType")).thenReturn(price);
+        when(mpg.getMpgAsync("Toyota", "Camry", "2018", null)).thenReturn(mileage);
+
+        CostPerMileCalculator calc = calculator(mpg, gas, mock(VehicleRepository.class), noStoredResults(), Duration.ofSeconds(5), new SimpleMeterRegistry());
+        CompletableFuture<CalculateResponse> result = calc.calculateCostPerMileAsync(guestRequest(), null);
+
+        // Both upstream calls are in flight while neither has answered
+        verify(gas).getPriceAsync("region", "fuelType");
+        verify(mpg).getMpgAsync("Toyota", "Camry", "2018", null);
+        assertFalse(result.isDone());
+
+        mileage.complete(25.0);
+        price.complete(3.50);
+        assertEquals(3.50 / 25.0, result.get().getCostPerMile(), 1e-9);
+    }
+
+    @Test
+    void calculateCostPerMile_cityShare_blendsFiguresFromOneLookup() throws Exception {
+        CityMpgService mpg = mock(CityMpgService.class);
+        GasPriceService gas = mock(GasPriceService.class);
+        when(gas.getPriceAsync("region", "fuelType")).thenReturn(CompletableFuture.completedFuture(3.00));
+        when(mpg.getMpgFiguresAsync("Toyota", "Camry", "2018", null))
+            .thenReturn(CompletableFuture.completedFuture(new MpgFigures(20.0, 40.0, 26.0)));
+
+        VehicleRequest request = guestRequest();
+        request.setCityShare(0.25);
+        CostPerMileCalculator calc = calculator(mpg, gas, mock(VehicleRepository.class), noStoredResults(), Duration.ofSeconds(5), new SimpleMeterRegistry());
+        CalculateResponse response = calculate(calc, request, null);
+
+        // 1 / (0.25 / 20 + 0.75 / 40) = 32 MPG
+        assertEquals(32.0, response.getCityMpg(), 1e-9);
+        assertEquals(3.00 / 32.0, response.getCostPerMile(), 1e-9);
+        verify(mpg, never()).getMpgAsync(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void calculateCostPerMile_deadlineExceeded_returnsGatewayTimeout() {
+        CityMpgService mpg = mock(CityMpgService.class);
+        GasPriceService gas = mock(GasPriceService.class);
+        when(gas.getPriceAsync(anyString(), anyString())).thenReturn(new CompletableFuture<>());
+        when(mpg.getMpgAsync(anyString(), anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(25.0));
+
+        CostPerMileCalculator calc = calculator(mpg, gas, mock(VehicleRepository.class), noStoredResults(), Duration.ofMillis(50), new SimpleMeterRegistry());
+
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+            () -> calculate(calc, guestRequest(), null));
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, error.getStatusCode());
+    }
+
+    @Test
+    void calculateCostPerMile_projectionPointsSetsTheCurveLength() throws Exception {
+        CostPerMileCalculator calc = calculator(mock(CityMpgService.class), mock(GasPriceService.class),
+            mock(VehicleRepository.class), noStoredResults(), Duration.ofSeconds(5), new SimpleMeterRegistry());
+        VehicleRequest request = new VehicleRequest(null, null, null, null, null, null, null, 25.0, 3.50);
+        request.setHorizonMiles(150_000);
+
+        assertEquals(100, calculate(calc, request, null).getProjectionMiles().length);
+        request.setProjectionPoints(1000);
+        assertEquals(1000, calculate(calc, request, null).getProjectionMiles().length);
+    }
+
+    @Test
+    void calculateCostPerMile_tooManyProjectionPoints_isABadRequest() {
+        CostPerMileCalculator calc = calculator(mock(CityMpgService.class), mock(GasPriceService.class),
+            mock(VehicleRepository.class), noStoredResults(), Duration.ofSeconds(5), new SimpleMeterRegistry());
+        VehicleRequest request = new VehicleRequest(null, null, null, null, null, null, null, 25.0, 3.50);
+        request.setHorizonMiles(150_000);
+        request.setProjectionPoints(1001);
+
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+            () -> calculate(calc, request, null));
+        assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+    }
+
+    @Test
+    void calculateCostPerMile_upstreamUnavailable_returnsDegradedResponse() throws Exception {
+        CityMpgService mpg = mock(CityMpgService.class);
+        GasPriceService gas = mock(GasPriceService.class);
+        when(gas.getPriceAsync("region", "fuelType")).thenReturn(CompletableFuture.completedFuture(3.50));
+        when(mpg.getMpgAsync("Toyota", "Camry", "2018", null))
+            .thenReturn(CompletableFuture.failedFuture(new UpstreamUnavailableException("Circuit open for carapi")));
+
+        CostPerMileCalculator calc = calculator(mpg, gas, mock(VehicleRepository.class), noStoredResults(), Duration.ofSeconds(5), new SimpleMeterRegistry());
+        CalculateResponse response = calculate(calc, guestRequest(), null);
+
+        assertTrue(response.isDegraded());
+        assertEquals(3.50, response.getGasPrice(), 1e-9);
+        assertEquals(0.0, response.getCostPerMile(), 1e-9);
+    }
+
+    @Test
+    void calculateCostPerMile_savedVehicle_reusesThisWeeksResult() throws Exception {
+        GasPriceService gas = mock(GasPriceService.class);
+        when(gas.getQuoteAsync("SCA", "EPMR"))
+            .thenReturn(CompletableFuture.completedFuture(new GasPriceQuote(3.50, LocalDate.of(2024, 10, 14))));
+        UserEntity owner = new UserEntity("driver@example.com", "hash");
+        owner.setUserId(7L);
+        VehicleRepository vehicles = mock(VehicleRepository.class);
+        when(vehicles.findByVehicleIdAndOwnerId(42L, owner))
+            .thenReturn(Optional.of(new VehicleEntity("Toyota", "Camry", "2018", null, 25.0, owner)));
+        VehicleCostResultRepository stored = mock(VehicleCostResultRepository.class);
+        when(stored.findCurrent(any(), any(), any())).thenReturn(Optional.empty());
+
+        CostPerMileCalculator calc = calculator(mock(CityMpgService.class), gas, vehicles,
+            new VehicleCostResultCache(stored, 100), Duration.ofSeconds(5), new SimpleMeterRegistry());
+        VehicleRequest request = new VehicleRequest(null, null, null, null, "SCA", "EPMR", 42L, null, null);
+
+        assertEquals(3.50 / 25.0, calculate(calc, request, owner).getCostPerMile(), 1e-9);
+        assertEquals(3.50 / 25.0, calculate(calc, request, owner).getCostPerMile(), 1e-9);
+        verify(vehicles, times(1)).findByVehicleIdAndOwnerId(42L, owner);
+        verify(stored).save(any());
+    }
+
+    @Test
+    void calculateCostPerMile_recordsLatencyByBranch() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CostPerMileCalculator calc = calculator(mock(CityMpgService.class), mock(GasPriceService.class),
+            mock(VehicleRepository.class), noStoredResults(), Duration.ofSeconds(5), registry);
+
+        calculate(calc, new VehicleRequest(null, null, null, null, null, null, null, 25.0, 3.50), null);
+
+        assertEquals(1, registry.get("calculator.requests").tags("branch", "manual", "outcome", "SUCCESS").timer().count());
+    }
+
 //     @Test
 //     void calculateCostPerMile_success() throws Exception {
 //         CityMpgService mpg = mock(CityMpgService.class);
@@ -0,0 +1,50 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import model.Region;
+import service.impl.RegionResolver;
+
+class RegionResolverTest {
+
+    private final RegionResolver resolver = new RegionResolver();
+
+    @Test
+    void resolve_codeIgnoresCase() {
+        assertEquals(Region.CALIFORNIA, resolver.resolve(" sca "));
+        assertEquals(Region.US_NATIONAL, resolver.resolve("NUS"));
+    }
+
+    @Test
+    void resolve_stateUsesItsOwnSeriesElseItsPadd() {
+        assertEquals(Region.TEXAS, resolver.resolve("tx"));
+        assertEquals(Region.PADD_1C, resolver.resolve("GA"));
+        assertEquals(Region.PADD_1A, resolver.resolve("VT"));
+        assertEquals(Region.PADD_4, resolver.resolve("UT"));
+    }
+
+    @Test
+    void resolve_zipPrefersMetroOverState() {
+        assertEquals(Region.HOUSTON, resolver.resolve("77002"));
+        assertEquals(Region.TEXAS, resolver.resolve("78701-1234"));
+        assertEquals(Region.BOSTON, resolver.resolve("02108"));
+        assertEquals(Region.PADD_2, resolver.resolve("37203")); // Nashville, TN
+    }
+
+    @Test
+    void resolve_coordinatesUseNearbyMetroElseNearestState() {
+        assertEquals(Region.DENVER, resolver.resolve("39.70,-105.08"));
+        assertEquals(Region.COLORADO, resolver.resolve("38.83, -104.82")); // Colorado Springs
+        assertEquals(Region.PADD_3, resolver.resolve("32.30,-90.18")); // Jackson, MS
+    }
+
+    @Test
+    void resolve_unrecognizedIsNullAndCodePassesThrough() {
+        assertNull(resolver.resolve("Atlantis"));
+        assertNull(resolver.resolve("48.85,2.35")); // Paris
+        assertEquals("R1Y", resolver.resolveCode("R1Y"));
+    }
+}
@@ -0,0 +1,105 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import model.GasPriceQuote;
+import model.MpgFigures;
+import service.impl.CarApiResponseParser;
+import service.impl.EiaResponseParser;
+
+class ResponseParserTest {
+
+    private static InputStream fixture(String name) {
+        return ResponseParserTest.class.getResourceAsStream("/fixtures/" + name);
+    }
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void eia_parseLatest_readsFirstRowValueAndPeriod() throws Exception {
+        GasPriceQuote quote = EiaResponseParser.parseLatest(fixture("eia-weekly-sca-epmr.json"));
+        assertEquals(4.652, quote.getPrice(), 1e-9);
+        assertEquals(LocalDate.of(2024, 10, 14), quote.getPeriod());
+    }
+
+    @Test
+    void eia_parseLatest_emptyDataReturnsZero() throws Exception {
+        GasPriceQuote quote = EiaResponseParser.parseLatest(json("{\"response\":{\"data\":[]}}"));
+        assertEquals(0.0, quote.getPrice(), 1e-9);
+        assertNull(quote.getPeriod());
+    }
+
+    @Test
+    void eia_parseLatestByArea_keepsTheNewestRowPerArea() throws Exception {
+        // Batched query sorted newest first: areas interleave and repeat for older weeks
+        String body = "{\"response\":{\"data\":["
+            + "{\"period\":\"2024-10-14\",\"duoarea\":\"NUS\",\"value\":3.20},"
+            + "{\"period\":\"2024-10-14\",\"duoarea\":\"SCA\",\"value\":\"4.652\"},"
+            + "{\"period\":\"2024-10-14\",\"duoarea\":\"R20\",\"value\":null},"
+            + "{\"period\":\"2024-10-07\",\"duoarea\":\"NUS\",\"value\":3.18},"
+            + "{\"period\":\"2024-10-07\",\"duoarea\":\"R20\",\"value\":3.01}"
+            + "]}}";
+
+        Map<String, GasPriceQuote> latest = EiaResponseParser.parseLatestByArea(json(body), 3);
+
+        assertEquals(List.of("NUS", "SCA", "R20"), List.copyOf(latest.keySet()));
+        assertEquals(3.20, latest.get("NUS").getPrice(), 1e-9);
+        assertEquals(LocalDate.of(2024, 10, 14), latest.get("NUS").getPeriod());
+        assertEquals(4.652, latest.get("SCA").getPrice(), 1e-9);
+        // No value for the newest week, so the week before is used
+        assertEquals(3.01, latest.get("R20").getPrice(), 1e-9);
+        assertEquals(LocalDate.of(2024, 10, 7), latest.get("R20").getPeriod());
+    }
+
+    @Test
+    void eia_parseLatestByArea_stopsOnceEveryAreaIsFound() throws Exception {
+        String body = "{\"response\":{\"data\":["
+            + "{\"period\":\"2024-10-14\",\"duoarea\":\"NUS\",\"value\":3.20},"
+            + "{\"period\":\"2024-10-14\",\"duoarea\":\"SCA\",\"value\":4.65},"
+            + "{\"period\":\"2024-10-07\",\"duoarea\":\"R20\",\"value\":3.01}"
+            + "]}}";
+
+        assertEquals(List.of("NUS", "SCA"), List.copyOf(EiaResponseParser.parseLatestByArea(json(body), 2).keySet()));
+        assertTrue(EiaResponseParser.parseLatestByArea(json("{\"response\":{\"data\":[]}}"), 2).isEmpty());
+    }
+
+    @Test
+    void carApi_parseMpg_matchesSubmodelIgnoringCase() throws Exception {
+        assertEquals(51.0, CarApiResponseParser.parseMpg(fixture("carapi-mileages-2018-toyota-camry.json"), "hybrid le"), 1e-9);
+    }
+
+    @Test
+    void carApi_parseMpg_fallsBackToFirstEntry() throws Exception {
+        assertEquals(28.0, CarApiResponseParser.parseMpg(fixture("carapi-mileages-2018-toyota-camry.json"), null), 1e-9);
+        assertEquals(28.0, CarApiResponseParser.parseMpg(fixture("carapi-mileages-2018-toyota-camry.json"), "Platinum"), 1e-9);
+    }
+
+    @Test
+    void carApi_parseMpg_fallsBackToCombinedWhenCityMissing() throws Exception {
+        String body = "{\"data\":[{\"submodel\":\"SE\",\"epa_city_mpg\":null,\"combined_mpg\":30}]}";
+        assertEquals(30.0, CarApiResponseParser.parseMpg(json(body), "SE"), 1e-9);
+    }
+
+    @Test
+    void carApi_parseFigures_readsCityHighwayAndCombinedFromOneEntry() throws Exception {
+        MpgFigures figures = CarApiResponseParser.parseFigures(fixture("carapi-mileages-2018-toyota-camry.json"), null);
+        assertEquals(28.0, figures.getCityMpg(), 1e-9);
+        assertEquals(39.0, figures.getHighwayMpg(), 1e-9);
+        assertEquals(32.0, figures.getCombinedMpg(), 1e-9);
+        // Half the miles at each: harmonic, not arithmetic, mean
+        assertEquals(1.0 / (0.5 / 28.0 + 0.5 / 39.0), figures.blend(0.5), 1e-9);
+    }
+}
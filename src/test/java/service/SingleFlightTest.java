@@ -0,0 +1,67 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import service.cache.SingleFlight;
+
+class SingleFlightTest {
+
+    @Test
+    void execute_concurrentCallersForSameKey_shareOneLoad() throws Exception {
+        SingleFlight<String, Double> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Double>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> flight.execute("2018|toyota|camry|", () -> {
+                    loads.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return 28.0;
+                })));
+            }
+
+            // Let every caller either start the load or join it before releasing
+            while (flight.getExecutionCount() + flight.getCollapsedCount() < callers) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<Double> result : results) {
+                assertEquals(28.0, result.get(5, TimeUnit.SECONDS), 1e-9);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(callers - 1, flight.getCollapsedCount());
+        assertEquals(0, flight.getInFlightCount());
+    }
+
+    @Test
+    void execute_loaderFailure_propagatesAndClearsKey() throws Exception {
+        SingleFlight<String, Double> flight = new SingleFlight<>();
+
+        assertThrows(IllegalStateException.class, () -> flight.execute("k", () -> {
+            throw new IllegalStateException("upstream down");
+        }));
+
+        assertEquals(3.5, flight.execute("k", () -> 3.5), 1e-9);
+    }
+}
@@ -0,0 +1,65 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import model.MaintenanceCosts;
+import model.MaintenanceSchedule;
+import model.TotalCostOfOwnership;
+import service.impl.MaintenanceScheduleParser;
+
+class TotalCostOfOwnershipTest {
+
+    private static final MaintenanceSchedule SCHEDULE =
+        MaintenanceScheduleParser.parse(new MaintenanceCosts(40.0, 5000), "Tires:800:50000");
+
+    @Test
+    void perMileCostSpreadsEachItemOverItsInterval() {
+        TotalCostOfOwnership ownership = new TotalCostOfOwnership(0.14, SCHEDULE);
+
+        assertEquals(40.0 / 5000 + 800.0 / 50000, ownership.getMaintenanceCostPerMile(), 1e-9);
+        assertEquals(0.14 + 0.024, ownership.getTotalCostPerMile(), 1e-9);
+        Map<String, Double> breakdown = ownership.breakdown();
+        assertEquals(List.of("Fuel", "Oil change", "Tires"), List.copyOf(breakdown.keySet()));
+        assertEquals(0.016, breakdown.get("Tires"), 1e-9);
+    }
+
+    @Test
+    void projectionChargesEachItemWhenItsIntervalIsReached() {
+        TotalCostOfOwnership ownership = new TotalCostOfOwnership(0.10, SCHEDULE);
+        double[] miles = { 0, 4999, 5000, 50000 };
+        double[] costs = new double[miles.length];
+
+        ownership.project(miles, costs);
+
+        assertArrayEquals(new double[] { 0.0, 499.9, 540.0, 5000 + 400 + 800 }, costs, 1e-9);
+    }
+
+    @Test
+    void mileagesHitIntervalBoundariesExactly() {
+        assertArrayEquals(new double[] { 5000, 10000, 15000 }, TotalCostOfOwnership.mileages(15000, 3), 0.0);
+    }
+
+    @Test
+    void malformedItemsAreSkipped() {
+        MaintenanceSchedule schedule = MaintenanceScheduleParser.parse(new MaintenanceCosts(), "Tires:800:50000,Brakes:x:40000,nonsense,Wipers:20:0");
+
+        assertEquals(2, schedule.size());
+        assertEquals("Tires", schedule.name(1));
+    }
+
+    @Test
+    void scheduleKeepsItsOwnCopyOfEachItem() {
+        MaintenanceCosts oil = new MaintenanceCosts(40.0, 5000);
+        MaintenanceSchedule schedule = MaintenanceSchedule.of(oil);
+
+        oil.setOilChangeCost(80.0);
+
+        assertEquals(40.0 / 5000, schedule.costPerMile(), 1e-12);
+    }
+}
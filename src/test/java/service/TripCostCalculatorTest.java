@@ -0,0 +1,109 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import model.TripCost;
+import model.TripCostSummary;
+import service.api.GasPriceService;
+import service.impl.GasPriceHistoryService;
+import service.impl.PriceSeries;
+import service.impl.RegionResolver;
+import service.impl.TripCostCalculator;
+
+class TripCostCalculatorTest {
+
+    private static long day(String date) {
+        return LocalDate.parse(date).toEpochDay();
+    }
+
+    @Test
+    void pricesEachTripAtItsWeekAndTotalsTheLog() throws Exception {
+        GasPriceHistoryService history = mock(GasPriceHistoryService.class);
+        when(history.series("SCA", "EPMR")).thenReturn(PriceSeries.EMPTY.append(
+            new long[] { day("2024-10-07"), day("2024-10-14") }, new double[] { 4.00, 5.00 }, 2));
+        when(history.series("STX", "EPMR")).thenReturn(PriceSeries.EMPTY);
+        GasPriceService gas = mock(GasPriceService.class);
+        when(gas.getPrice("STX", "EPMR")).thenReturn(3.00);
+
+        String csv = "region,date,miles\n"
+                   + "SCA,2024-10-09,100\n"   // week of 10-07
+                   + "SCA,2024-10-14,50\n"    // week of 10-14
+                   + "STX,2024-10-09,20\n"    // no history: current price
+                   + "STX,not-a-date,20\n"
+                   + "STX,2024-10-10,10\n";
+        List<TripCost> trips = new ArrayList<>();
+        TripCostSummary summary = new TripCostCalculator(history, gas, new RegionResolver())
+            .calculate(new StringReader(csv), 25.0, "EPMR", trips::add);
+
+        assertEquals(4, trips.size());
+        assertEquals(4.00, trips.get(0).getGasPrice(), 1e-9);
+        assertEquals(16.0, trips.get(0).getCost(), 1e-9);
+        assertEquals(5.00, trips.get(1).getGasPrice(), 1e-9);
+        assertEquals(3.00, trips.get(2).getGasPrice(), 1e-9);
+        assertEquals(6, trips.get(3).getLine());
+        verify(gas, times(1)).getPrice("STX", "EPMR");
+
+        assertEquals(4, summary.getTrips());
+        assertEquals(1, summary.getSkipped());
+        assertEquals(180.0, summary.getTotalMiles(), 1e-9);
+        assertEquals(16.0 + 10.0 + 2.4 + 1.2, summary.getTotalCost(), 1e-9);
+    }
+
+    @Test
+    void resolvesStatesAndZipsAndSkipsUnrecognizedRegions() throws Exception {
+        GasPriceHistoryService history = mock(GasPriceHistoryService.class);
+        when(history.series(anyString(), anyString())).thenReturn(PriceSeries.EMPTY);
+        GasPriceService gas = mock(GasPriceService.class);
+        when(gas.getPrice("R1Z", "EPMR")).thenReturn(3.10);
+
+        String csv = "2024-10-09,100,GA\n"
+                   + "2024-10-09,100,31401\n"
+                   + "2024-10-09,100,ZZZ\n"
+                   + "2024-10-09,100,\n";
+        List<TripCost> trips = new ArrayList<>();
+        TripCostSummary summary = new TripCostCalculator(history, gas, new RegionResolver())
+            .calculate(new StringReader(csv), 25.0, "EPMR", trips::add);
+
+        assertEquals(2, summary.getTrips());
+        assertEquals(2, summary.getSkipped());
+        assertEquals("R1Z", trips.get(0).getRegion());
+        assertEquals("R1Z", trips.get(1).getRegion());
+        verify(gas, times(1)).getPrice("R1Z", "EPMR");
+    }
+
+    @Test
+    void tripsWithNoPriceAreCountedAsUnpricedAndLeftOutOfTheTotals() throws Exception {
+        GasPriceHistoryService history = mock(GasPriceHistoryService.class);
+        when(history.series(anyString(), anyString())).thenReturn(PriceSeries.EMPTY);
+        GasPriceService gas = mock(GasPriceService.class);
+        when(gas.getPrice("SCA", "EPMR")).thenReturn(4.00);
+        when(gas.getPrice("STX", "EPMR")).thenThrow(new IOException("EIA down"));
+
+        String csv = "2024-10-09,100,SCA\n"
+                   + "2024-10-09,20,STX\n"
+                   + "2024-10-10,30,STX\n";
+        List<TripCost> trips = new ArrayList<>();
+        TripCostSummary summary = new TripCostCalculator(history, gas, new RegionResolver())
+            .calculate(new StringReader(csv), 25.0, "EPMR", trips::add);
+
+        assertEquals(1, trips.size());
+        assertEquals(1, summary.getTrips());
+        assertEquals(2, summary.getUnpriced());
+        assertEquals(100.0, summary.getTotalMiles(), 1e-9);
+        assertEquals(16.0, summary.getTotalCost(), 1e-9);
+        verify(gas, times(1)).getPrice("STX", "EPMR");
+    }
+}
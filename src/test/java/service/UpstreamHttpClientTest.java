@@ -0,0 +1,188 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+
+import config.HttpClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import service.http.CircuitBreaker;
+import service.http.UpstreamHttpClient;
+import service.http.UpstreamMetrics;
+import service.http.UpstreamUnavailableException;
+
+class UpstreamHttpClientTest {
+
+    private static HttpClientProperties properties() {
+        // Breaker opens after 2 calls at 50% failures, for 30s
+        return new HttpClientProperties(Duration.ofSeconds(3), Duration.ofSeconds(8), HttpClient.Version.HTTP_2, 8,
+            32, 64, Duration.ofMillis(500), 2, 2, 50, Duration.ofSeconds(30));
+    }
+
+    // One request in flight per host, one more queued, 50ms wait for sync callers
+    private static HttpClientProperties singleSlot() {
+        return new HttpClientProperties(Duration.ofSeconds(3), Duration.ofSeconds(8), HttpClient.Version.HTTP_2, 8,
+            1, 1, Duration.ofMillis(50), 2, 2, 50, Duration.ofSeconds(30));
+    }
+
+    // 100ms for the whole exchange, one request in flight per host
+    private static HttpClientProperties shortDeadline() {
+        return new HttpClientProperties(Duration.ofSeconds(3), Duration.ofMillis(100), HttpClient.Version.HTTP_2, 8,
+            1, 1, Duration.ofSeconds(1), 2, 2, 50, Duration.ofSeconds(30));
+    }
+
+    private static HttpRequest.Builder request() {
+        return HttpRequest.newBuilder(URI.create("https://api.eia.gov/v2/petroleum"));
+    }
+
+    // Async calls that never answer until the test completes them, in the order they reached the HttpClient
+    private static HttpClient pendingHttpClient(List<CompletableFuture<HttpResponse<byte[]>>> started) {
+        HttpClient http = mock(HttpClient.class);
+        when(http.sendAsync(any(HttpRequest.class), any())).thenAnswer(invocation -> {
+            CompletableFuture<HttpResponse<byte[]>> future = new CompletableFuture<>();
+            started.add(future);
+            return future;
+        });
+        return http;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<byte[]> ok() {
+        HttpResponse<byte[]> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        return response;
+    }
+
+    @Test
+    void sendAsync_perHostCap_queuesExtraCallsUntilASlotFrees() throws Exception {
+        List<CompletableFuture<HttpResponse<byte[]>>> started = new ArrayList<>();
+        UpstreamHttpClient client = new UpstreamHttpClient(pendingHttpClient(started), singleSlot(),
+            new UpstreamMetrics(new SimpleMeterRegistry()));
+
+        CompletableFuture<HttpResponse<byte[]>> first = client.sendAsync("eia", request());
+        CompletableFuture<HttpResponse<byte[]>> second = client.sendAsync("eia", request());
+        assertEquals(1, started.size());
+        assertEquals(1, client.getQueuedCount("api.eia.gov"));
+
+        // The queue is full, so the third call is refused without reaching EIA
+        CompletableFuture<HttpResponse<byte[]>> third = client.sendAsync("eia", request());
+        ExecutionException rejected = assertThrows(ExecutionException.class, third::get);
+        assertInstanceOf(UpstreamUnavailableException.class, rejected.getCause());
+        assertEquals(1, started.size());
+
+        // Another host has its own slot
+        client.sendAsync("carapi", HttpRequest.newBuilder(URI.create("https://carapi.app/api/trims")));
+        assertEquals(2, started.size());
+
+        // Finishing the first EIA call starts the queued one
+        started.get(0).complete(ok());
+        assertEquals(200, first.get().statusCode());
+        assertEquals(3, started.size());
+        assertEquals(0, client.getQueuedCount("api.eia.gov"));
+        assertFalse(second.isDone());
+
+        started.get(2).complete(ok());
+        assertEquals(200, second.get().statusCode());
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitState("eia"));
+    }
+
+    @Test
+    void send_perHostCapFull_rejectsAfterMaxWaitWithoutTrippingTheBreaker() throws Exception {
+        List<CompletableFuture<HttpResponse<byte[]>>> started = new ArrayList<>();
+        UpstreamHttpClient client = new UpstreamHttpClient(pendingHttpClient(started), singleSlot(),
+            new UpstreamMetrics(new SimpleMeterRegistry()));
+
+        client.sendAsync("eia", request());
+        assertEquals(1, started.size());
+
+        long before = System.nanoTime();
+        assertThrows(UpstreamUnavailableException.class, () -> client.send("eia", request()));
+        assertTrue(Duration.ofNanos(System.nanoTime() - before).toMillis() >= 50);
+        assertThrows(UpstreamUnavailableException.class, () -> client.send("eia", request()));
+
+        // Our own bulkhead refused the calls; EIA never failed
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitState("eia"));
+    }
+
+    @Test
+    void send_interruptedHalfOpenProbe_givesThePermissionBack() throws Exception {
+        HttpClient http = mock(HttpClient.class);
+        when(http.sendAsync(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<byte[]>>any()))
+            .thenReturn(CompletableFuture.failedFuture(new IOException("down")), CompletableFuture.failedFuture(new IOException("down")))
+            .thenAnswer(invocation -> {
+                Thread.currentThread().interrupt(); // Interrupted while waiting for EIA to answer
+                return new CompletableFuture<HttpResponse<byte[]>>();
+            })
+            .thenReturn(CompletableFuture.completedFuture(ok()));
+        MutableClock clock = new MutableClock(Instant.parse("2024-10-15T12:00:00Z"));
+        UpstreamHttpClient client = new UpstreamHttpClient(http, properties(), new UpstreamMetrics(new SimpleMeterRegistry()), clock);
+
+        assertThrows(IOException.class, () -> client.send("eia", request()));
+        assertThrows(IOException.class, () -> client.send("eia", request()));
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState("eia"));
+        assertThrows(UpstreamUnavailableException.class, () -> client.send("eia", request()));
+
+        // The probe is interrupted before EIA answers; the next call must still be allowed to probe
+        clock.advance(Duration.ofSeconds(31));
+        assertThrows(InterruptedException.class, () -> client.send("eia", request()));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, client.getCircuitState("eia"));
+
+        assertEquals(200, client.send("eia", request()).statusCode());
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitState("eia"));
+    }
+
+    @Test
+    void send_bodyNotReadInTime_timesOutAndFreesTheSlot() throws Exception {
+        List<CompletableFuture<HttpResponse<byte[]>>> started = new ArrayList<>();
+        UpstreamHttpClient client = new UpstreamHttpClient(pendingHttpClient(started), shortDeadline(),
+            new UpstreamMetrics(new SimpleMeterRegistry()));
+
+        // Headers may have arrived, but the exchange only completes once the body is read
+        assertThrows(HttpTimeoutException.class, () -> client.send("eia", request()));
+        assertTrue(started.get(0).isCancelled());
+
+        // The slot was handed back, so the next call reaches EIA instead of waiting for it
+        assertThrows(HttpTimeoutException.class, () -> client.send("eia", request()));
+        assertEquals(2, started.size());
+    }
+
+    @Test
+    void sendAsync_bodyNotReadInTime_timesOutAndStartsTheQueuedCall() throws Exception {
+        List<CompletableFuture<HttpResponse<byte[]>>> started = new ArrayList<>();
+        UpstreamHttpClient client = new UpstreamHttpClient(pendingHttpClient(started), shortDeadline(),
+            new UpstreamMetrics(new SimpleMeterRegistry()));
+
+        CompletableFuture<HttpResponse<byte[]>> slow = client.sendAsync("eia", request());
+        CompletableFuture<HttpResponse<byte[]>> queued = client.sendAsync("eia", request());
+        assertEquals(1, started.size());
+
+        ExecutionException timedOut = assertThrows(ExecutionException.class, slow::get);
+        assertInstanceOf(HttpTimeoutException.class, timedOut.getCause());
+        assertTrue(started.get(0).isCancelled());
+
+        assertEquals(2, started.size());
+        started.get(1).complete(ok());
+        assertEquals(200, queued.get().statusCode());
+    }
+}
@@ -0,0 +1,84 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import entity.UserEntity;
+import repository.UserRepository;
+import service.impl.UserAuthentication;
+
+class UserAuthenticationTest {
+
+    @Test
+    void cachesFoundUsersUntilTheTtlExpires() {
+        UserRepository repository = mock(UserRepository.class);
+        UserEntity user = new UserEntity("driver@example.com", "hash");
+        user.setUserId(7L);
+        when(repository.findByEmail("driver@example.com")).thenReturn(Optional.of(user));
+        MutableClock clock = new MutableClock(Instant.parse("2024-10-16T12:00:00Z"));
+        UserAuthentication auth = new UserAuthentication(repository, 100, Duration.ofMinutes(5), clock);
+
+        auth.loadUserByUsername("driver@example.com");
+        UserEntity cached = (UserEntity) auth.loadUserByUsername("driver@example.com");
+        assertEquals(Long.valueOf(7L), cached.getUserId());
+        assertEquals("hash", cached.getPassword());
+        verify(repository, times(1)).findByEmail("driver@example.com");
+
+        clock.advance(Duration.ofMinutes(6));
+        auth.loadUserByUsername("driver@example.com");
+        verify(repository, times(2)).findByEmail("driver@example.com");
+    }
+
+    @Test
+    void evictForcesAReload() {
+        UserRepository repository = mock(UserRepository.class);
+        when(repository.findByEmail("driver@example.com")).thenReturn(Optional.of(new UserEntity("driver@example.com", "hash")));
+        UserAuthentication auth = new UserAuthentication(repository, 100, Duration.ofMinutes(5), new MutableClock(Instant.parse("2024-10-16T12:00:00Z")));
+
+        auth.loadUserByUsername("driver@example.com");
+        auth.evict("driver@example.com");
+        auth.loadUserByUsername("driver@example.com");
+        verify(repository, times(2)).findByEmail("driver@example.com");
+    }
+
+    @Test
+    void eachLoadGetsItsOwnCopySoChangesDoNotLeakIntoTheCache() {
+        UserRepository repository = mock(UserRepository.class);
+        UserEntity stored = new UserEntity("driver@example.com", "hash");
+        when(repository.findByEmail("driver@example.com")).thenReturn(Optional.of(stored));
+        UserAuthentication auth = new UserAuthentication(repository, 100, Duration.ofMinutes(5), new MutableClock(Instant.parse("2024-10-16T12:00:00Z")));
+
+        UserEntity first = (UserEntity) auth.loadUserByUsername("driver@example.com");
+        first.setPassword("changed");
+        stored.setPassword("changed too");
+        UserEntity second = (UserEntity) auth.loadUserByUsername("driver@example.com");
+
+        assertNotSame(first, second);
+        assertNotSame(stored, second);
+        assertEquals("hash", second.getPassword());
+    }
+
+    @Test
+    void unknownEmailsAreNotCached() {
+        UserRepository repository = mock(UserRepository.class);
+        when(repository.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+        UserAuthentication auth = new UserAuthentication(repository, 100, Duration.ofMinutes(5), new MutableClock(Instant.parse("2024-10-16T12:00:00Z")));
+
+        assertThrows(UsernameNotFoundException.class, () -> auth.loadUserByUsername("nobody@example.com"));
+        assertThrows(UsernameNotFoundException.class, () -> auth.loadUserByUsername("nobody@example.com"));
+        verify(repository, times(2)).findByEmail("nobody@example.com");
+    }
+}
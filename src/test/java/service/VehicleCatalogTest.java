@@ -0,0 +1,65 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import service.impl.EpaFuelEconomyIndex;
+import service.impl.VehicleCatalog;
+
+class VehicleCatalogTest {
+
+    private static final String CSV = String.join("\n",
+        "city08,comb08,highway08,make,model,year,baseModel",
+        "28,32,39,Toyota,Camry,2018,Camry",
+        "27,31,38,Toyota,Camry,2018,Camry",
+        "51,52,53,Toyota,Camry Hybrid LE,2018,Camry",
+        "44,46,47,Toyota,Camry Hybrid XLE/SE,2018,Camry",
+        "30,34,40,Toyota,Corolla,2018,Corolla",
+        "0,18,23,Ford,F150 Pickup 2WD,2018,F150",
+        "26,30,36,Tesla,Model 3,2019,Model 3",
+        "29,33,41,Toyota,Camry,2019,Camry");
+
+    private static VehicleCatalog catalog;
+
+    @BeforeAll
+    static void load() throws Exception {
+        catalog = VehicleCatalog.from(EpaFuelEconomyIndex.load(new StringReader(CSV)));
+    }
+
+    @Test
+    void from_keepsOneEntryPerDistinctCombination() {
+        assertEquals(7, catalog.size()); // The two 2018 Camry base rows collapse
+    }
+
+    @Test
+    void prefixSearch_walksYearMakeModelSubmodel() {
+        assertEquals(List.of("2019", "2018"), catalog.years("", 10));
+        assertEquals(List.of("Ford", "Toyota"), catalog.makes("2018", "", 10));
+        assertEquals(List.of("Toyota"), catalog.makes("2018", "to", 10));
+        assertEquals(List.of("Camry", "Corolla"), catalog.models("2018", "toyota", "c", 10));
+        assertEquals(List.of("Camry"), catalog.models("2018", "Toyota", "cam", 10));
+        assertEquals(List.of("Hybrid LE", "Hybrid XLE/SE"), catalog.submodels("2018", "Toyota", "Camry", "", 10));
+        assertEquals(List.of("Hybrid LE"), catalog.submodels("2018", "Toyota", "Camry", "hybrid l", 10));
+        assertEquals(List.of(), catalog.makes("1999", "", 10));
+    }
+
+    @Test
+    void contains_acceptsBaseOrFullModelIgnoringCaseAndPunctuation() {
+        assertTrue(catalog.contains("2018", "TOYOTA", "camry"));
+        assertTrue(catalog.contains("2018", "Toyota", "Camry Hybrid LE"));
+        assertTrue(catalog.contains("2018", "Ford", "F-150"));
+        assertFalse(catalog.contains("2018", "Toyota", "Camrry"));
+        assertFalse(catalog.contains("2019", "Ford", "F150"));
+        assertFalse(catalog.contains("next year", "Toyota", "Camry"));
+        assertThrows(ResponseStatusException.class, () -> catalog.requireKnown("2018", "Toyta", "Camry"));
+    }
+}
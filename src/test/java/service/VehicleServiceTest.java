@@ -0,0 +1,63 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import entity.UserEntity;
+import entity.VehicleEntity;
+import model.MpgFigures;
+import model.VehicleCost;
+import model.VehicleRequest;
+import model.VehicleSummary;
+import repository.VehicleRepository;
+import service.api.CityMpgService;
+import service.impl.VehicleCatalog;
+import service.impl.VehicleService;
+
+class VehicleServiceTest {
+
+    private static VehicleSummary summary(long id, double cityMpg) {
+        VehicleSummary vehicle = mock(VehicleSummary.class);
+        when(vehicle.getVehicleId()).thenReturn(id);
+        when(vehicle.getCityMpg()).thenReturn(cityMpg);
+        return vehicle;
+    }
+
+    @Test
+    void getVehicleCosts_pricesEveryVehicleFromOneQuery() {
+        UserEntity owner = new UserEntity("driver@example.com", "hash");
+        owner.setUserId(7L);
+        VehicleRepository repository = mock(VehicleRepository.class);
+        when(repository.findAllSummariesByOwner(7L)).thenReturn(List.of(summary(1L, 25.0), summary(2L, 50.0), summary(3L, 0.0)));
+
+        List<VehicleCost> costs = new VehicleService(mock(CityMpgService.class), repository, (VehicleCatalog) null).getVehicleCosts(owner, 3.50);
+
+        verify(repository).findAllSummariesByOwner(7L);
+        assertEquals(3, costs.size());
+        assertEquals(0.14, costs.get(0).getCostPerMile(), 1e-9);
+        assertEquals(0.07, costs.get(1).getCostPerMile(), 1e-9);
+        assertEquals(0.0, costs.get(2).getCostPerMile(), 1e-9);
+    }
+
+    @Test
+    void saveNewVehicle_storesRawFiguresAndDerivesFallbacksOnRead() throws Exception {
+        CityMpgService mpg = mock(CityMpgService.class);
+        when(mpg.getMpgFigures("Toyota", "Camry", "2018", null)).thenReturn(new MpgFigures(28.0, 39.0, 0.0));
+        VehicleRequest request = new VehicleRequest("Toyota", "Camry", "2018", null, "NUS", "EPMR", null, null, null);
+
+        VehicleEntity vehicle = new VehicleService(mpg, mock(VehicleRepository.class), (VehicleCatalog) null)
+            .saveNewVehicle(request, new UserEntity("driver@example.com", "hash"));
+
+        assertEquals(28.0, vehicle.getCityMpg(), 1e-9);
+        assertEquals(39.0, vehicle.getHighwayMpg(), 1e-9);
+        // carapi had no combined figure: stored as unknown, blended only when read
+        assertEquals(0.0, vehicle.getCombinedMpg(), 1e-9);
+        assertEquals(new MpgFigures(28.0, 39.0, 0.0).getCombinedMpg(), vehicle.getMpgFigures().getCombinedMpg(), 1e-9);
+    }
+}
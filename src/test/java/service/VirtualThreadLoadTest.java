@@ -0,0 +1,261 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.CookieManager;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import ui.WebApplication;
+
+/**
+ * Boots the application with spring.threads.virtual.enabled on and then off and sends
+ * 2,000 concurrent /api/calculate requests to each. EIA and carapi are replaced by a local
+ * server that answers after a fixed latency; only the application's HttpClient is pointed
+ * at it, so requests still pass through security, the caches, H2 and both executors.
+ * Every request names a different model, so each one misses the MPG cache and reaches carapi.
+ * Prints throughput and the peak number of live platform threads for each mode.
+ * Opt-in: mvn test -Dtest=VirtualThreadLoadTest -Dloadtest=true
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class VirtualThreadLoadTest {
+
+    private static final int CONCURRENT_REQUESTS = 2000;
+    private static final long UPSTREAM_LATENCY_MS = 100;
+
+    private static final ObjectMapper json = new ObjectMapper();
+
+    private static HttpServer upstreams;
+    private static ExecutorService upstreamThreads;
+
+    @BeforeAll
+    static void startUpstreams() throws IOException {
+        byte[] eia = fixture("eia-weekly-sca-epmr.json");
+        byte[] carapi = fixture("carapi-mileages-2018-toyota-camry.json");
+        upstreamThreads = Executors.newVirtualThreadPerTaskExecutor();
+        upstreams = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), CONCURRENT_REQUESTS);
+        upstreams.setExecutor(upstreamThreads);
+        upstreams.createContext("/v2/petroleum/pri/gnd/data/", exchange -> respond(exchange, eia));
+        upstreams.createContext("/api/mileages/v2", exchange -> respond(exchange, carapi));
+        upstreams.start();
+    }
+
+    @AfterAll
+    static void stopUpstreams() {
+        upstreams.stop(0);
+        upstreamThreads.shutdownNow();
+    }
+
+    @Test
+    void calculate_reportsThroughputAndPeakThreadsWithVirtualThreadsOnAndOff() throws Exception {
+        Result virtual = run(true);
+        Result platform = run(false);
+
+        System.out.printf("virtual threads:  %.0f req/s, peak %d live platform threads%n",
+            virtual.requestsPerSecond, virtual.peakThreads);
+        System.out.printf("platform threads: %.0f req/s, peak %d live platform threads%n",
+            platform.requestsPerSecond, platform.peakThreads);
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        URI upstream = URI.create("http://127.0.0.1:" + upstreams.getAddress().getPort());
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WebApplication.class)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(redirectTo(upstream)))
+                .properties(
+                    "server.port=0",
+                    "spring.threads.virtual.enabled=" + virtualThreads,
+                    // H2 in PostgreSQL mode; "year" and "key" are column names here but keywords in H2
+                    "spring.datasource.url=jdbc:h2:mem:load-" + mode + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=KEY,YEAR",
+                    "spring.flyway.enabled=false",
+                    "spring.jpa.hibernate.ddl-auto=create-drop",
+                    "spring.mvc.async.request-timeout=120s",
+                    "eia.api.key=load-test",
+                    "gas.price.prewarm.enabled=false",
+                    "gas.price.history.refresh.enabled=false",
+                    // Let the per-host limits admit the whole burst; the test measures threads, not shedding
+                    "http.client.version=HTTP_1_1",
+                    "http.client.max-concurrent-per-host=" + CONCURRENT_REQUESTS,
+                    "http.client.max-queued-per-host=" + CONCURRENT_REQUESTS,
+                    "http.client.max-wait-for-slot=60s",
+                    "http.client.request-timeout=60s",
+                    "calculator.deadline=60s",
+                    "logging.level.root=WARN")
+                .run()) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            return load(URI.create("http://127.0.0.1:" + port), mode);
+        }
+    }
+
+    private Result load(URI app, String mode) throws Exception {
+        ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .cookieHandler(new CookieManager())
+                .executor(clientThreads)
+                .build();
+            logIn(client, app, "load-" + mode + "@example.com");
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            threads.resetPeakThreadCount();
+            long start = System.nanoTime();
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>(CONCURRENT_REQUESTS);
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                String body = "{\"year\":\"2018\",\"make\":\"Toyota\",\"model\":\"Camry" + i + "\",\"region\":\"SCA\"}";
+                responses.add(client.sendAsync(post(app.resolve("/api/calculate"), "application/json", body),
+                    HttpResponse.BodyHandlers.ofString()));
+            }
+            CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            int peakThreads = threads.getPeakThreadCount();
+
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                HttpResponse<String> answered = response.join();
+                assertEquals(200, answered.statusCode(), answered.body());
+                JsonNode result = json.readTree(answered.body());
+                assertEquals(false, result.path("degraded").asBoolean(), answered.body());
+            }
+            return new Result(CONCURRENT_REQUESTS / seconds, peakThreads);
+        } finally {
+            clientThreads.shutdownNow();
+        }
+    }
+
+    // One session for the whole run, so each request skips the bcrypt check of basic auth
+    private static void logIn(HttpClient client, URI app, String email) throws Exception {
+        String password = "load-test-password";
+        HttpResponse<String> registered = client.send(post(app.resolve("/register"), "application/json",
+            "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, registered.statusCode(), registered.body());
+        HttpResponse<String> loggedIn = client.send(post(app.resolve("/login"), "application/x-www-form-urlencoded",
+            "email=" + URLEncoder.encode(email, StandardCharsets.UTF_8) + "&password=" + password),
+            HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, loggedIn.statusCode(), loggedIn.body());
+    }
+
+    private static HttpRequest post(URI uri, String contentType, String body) {
+        return HttpRequest.newBuilder(uri)
+            .header("Content-Type", contentType)
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        try (exchange) {
+            Thread.sleep(UPSTREAM_LATENCY_MS);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte[] fixture(String name) {
+        try (InputStream in = VirtualThreadLoadTest.class.getResourceAsStream("/fixtures/" + name)) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static BeanPostProcessor redirectTo(URI upstream) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof HttpClient client ? new RedirectingHttpClient(client, upstream) : bean;
+            }
+        };
+    }
+
+    /**
+     * Keeps the application's HttpClient, with its executor and settings, but sends every request
+     * to the stub server under the same path and query.
+     */
+    private static final class RedirectingHttpClient extends HttpClient {
+        private final HttpClient _delegate;
+        private final URI _upstream;
+
+        RedirectingHttpClient(HttpClient delegate, URI upstream) {
+            this._delegate = delegate;
+            this._upstream = upstream;
+        }
+
+        private HttpRequest redirect(HttpRequest request) {
+            URI uri = request.uri();
+            String target = uri.getRawPath() + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+            return HttpRequest.newBuilder(request, (name, value) -> true).uri(_upstream.resolve(target)).build();
+        }
+
+        @Override
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+                throws IOException, InterruptedException {
+            return _delegate.send(redirect(request), handler);
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+            return _delegate.sendAsync(redirect(request), handler);
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+            return _delegate.sendAsync(redirect(request), handler, pushPromiseHandler);
+        }
+
+        @Override public Optional<CookieHandler> cookieHandler() { return _delegate.cookieHandler(); }
+        @Override public Optional<Duration> connectTimeout() { return _delegate.connectTimeout(); }
+        @Override public Redirect followRedirects() { return _delegate.followRedirects(); }
+        @Override public Optional<ProxySelector> proxy() { return _delegate.proxy(); }
+        @Override public SSLContext sslContext() { return _delegate.sslContext(); }
+        @Override public SSLParameters sslParameters() { return _delegate.sslParameters(); }
+        @Override public Optional<Authenticator> authenticator() { return _delegate.authenticator(); }
+        @Override public Version version() { return _delegate.version(); }
+        @Override public Optional<Executor> executor() { return _delegate.executor(); }
+    }
+
+    private record Result(double requestsPerSecond, int peakThreads) {}
+}